@@ -0,0 +1,465 @@
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BranchAndBound.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * BranchAndBound class, an exact solver for inputs too large for Held-Karp's dynamic
+ * programming. The search starts with a heuristic tour (the incumbent) and splits the
+ * set of all tours on single edges: one branch forces an edge into the tour, the other
+ * forbids it. Every branch is bounded by the cheapest 1-tree that respects its forced
+ * and forbidden edges (see OneTree), with the penalties carried on from its parent, and
+ * a branch whose bound is no better than the incumbent is dropped. A branch whose 1-tree
+ * is a tour needs no more splitting: that tour is the best one in it.
+ *
+ * The edge that is split is the most expensive free tree edge at the city with the
+ * most tree edges, as a tour has exactly two at every city. Forcing and forbidding edges
+ * is followed through: a city with two forced edges has its other edges forbidden, a
+ * city with only two edges left has them forced, and the two ends of a chain of forced
+ * edges cannot be joined before every city is in it.
+ *
+ * Each thread dives depth first from a branch (finding new tours quickly), putting the
+ * branches it does not take into a shared queue. When a dive ends, the thread restarts
+ * from the branch in the queue with the lowest bound, which keeps the search best first.
+ * The 1-tree bound only holds for symmetric inputs.
+ */
+public class BranchAndBound {
+
+	static final int ITERATIONS_PER_BRANCH = 50; /* subgradient iterations for each branch */
+	static final double TOLERANCE = 1e-9; /* relative slack on the incumbent, so rounding never keeps a tie */
+
+	double[][] distanceMatrix;
+	int numberOfCities;
+	int threads;
+	Incumbent incumbent;
+	AtomicLong branchesExplored = new AtomicLong();
+	volatile boolean cancelled; /* set from another thread to stop the search */
+	volatile Throwable failure; /* the first error a thread stopped on, if any */
+
+	/* the branches waiting to be explored, lowest bound first. the lock also guards diving */
+	PriorityQueue<Branch> queue = new PriorityQueue<>();
+	ReentrantLock lock = new ReentrantLock();
+	Condition queueChanged = lock.newCondition();
+	int diving; /* number of threads in the middle of a dive, which may add more branches */
+
+	/**
+	 * Branch, one part of the search: the tours that use every forced edge and
+	 * no forbidden edge
+	 */
+	static class Branch implements Comparable<Branch> {
+		byte[][] edgeStates;
+		double[] penalties; /* penalties to start the subgradient optimisation from */
+		double bound; /* lower bound on every tour in the branch */
+
+		Branch(byte[][] edgeStates, double[] penalties, double bound) {
+			this.edgeStates = edgeStates;
+			this.penalties = penalties;
+			this.bound = bound;
+		}
+
+		@Override
+		public int compareTo(Branch other) {
+			return Double.compare(bound, other.bound);
+		}
+	}
+
+	/**
+	 * BranchAndBound constructor, searches on every available core
+	 *
+	 * @param distanceMatrix Distances between every pair of cities, which must be symmetric
+	 */
+	public BranchAndBound(double[][] distanceMatrix) {
+		this(distanceMatrix, Runtime.getRuntime().availableProcessors(), new Incumbent());
+	}
+
+	/**
+	 * BranchAndBound constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities, which must be symmetric
+	 * @param threads Number of threads to search with
+	 * @param incumbent Best tour known so far, which may be shared with other solvers.
+	 * A heuristic tour is offered to it before the search starts
+	 */
+	public BranchAndBound(double[][] distanceMatrix, int threads, Incumbent incumbent) {
+		this.distanceMatrix = distanceMatrix;
+		this.numberOfCities = distanceMatrix.length;
+		this.threads = threads;
+		this.incumbent = incumbent;
+
+		if (!HeldKarp.isSymmetric(distanceMatrix))
+			throw new IllegalArgumentException("Branch and bound needs a symmetric distance matrix");
+	}
+
+	/**
+	 * Gets the number of branches that have been bounded
+	 *
+	 * @return long Number of branches
+	 */
+	public long branchesExplored() {
+		return branchesExplored.get();
+	}
+
+	/**
+	 * Searches for the shortest tour, starting and ending at city 0
+	 *
+	 * @return Tour The shortest path and its cost, which are also printed
+	 */
+	public Tour solveTSP() {
+		incumbent.offer(Heuristics.upperBound(distanceMatrix));
+
+		/* with fewer than 4 cities there is only one tour */
+		if (numberOfCities >= 4) {
+			byte[][] edgeStates = new byte[numberOfCities][numberOfCities];
+			for (int city = 0; city < numberOfCities; city++)
+				edgeStates[city][city] = OneTree.FORBIDDEN;
+
+			queue.add(new Branch(edgeStates, new double[numberOfCities], Double.NEGATIVE_INFINITY));
+
+			Thread[] workers = new Thread[threads];
+			for (int worker = 0; worker < threads; worker++) {
+				workers[worker] = new Thread(this::search, "branch-and-bound-" + worker);
+				workers[worker].start();
+			}
+
+			try {
+				for (Thread worker : workers)
+					worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while searching", e);
+			}
+		}
+
+		/* a thread that failed lost its branches, so the incumbent is not proven optimal */
+		if (failure instanceof Error)
+			throw (Error) failure;
+		if (failure != null)
+			throw new IllegalStateException("Branch and bound failed before the search was complete", failure);
+
+		if (cancelled)
+			throw new CancellationException("Branch and bound was cancelled");
+
+		Tour tour = incumbent.tour();
+		System.out.println(tour);
+		return tour;
+	}
+
+	/**
+	 * Stops a search that is running on another thread, which then throws a
+	 * CancellationException. The best tour found so far stays in the incumbent
+	 */
+	public void cancel() {
+		lock.lock();
+		try {
+			cancelled = true;
+			queueChanged.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Run by each thread: takes the best branch from the queue and dives from it,
+	 * until the queue is empty and no other thread can add to it. If the thread
+	 * fails, the error is kept for solveTSP() and every other thread is stopped
+	 */
+	void search() {
+		try {
+			OneTree oneTree = new OneTree(distanceMatrix);
+			Branch branch;
+
+			while ((branch = takeBranch()) != null) {
+				try {
+					dive(branch, oneTree);
+				} finally {
+					lock.lock();
+					try {
+						diving--;
+						queueChanged.signalAll();
+					} finally {
+						lock.unlock();
+					}
+				}
+			}
+		} catch (RuntimeException | Error e) {
+			synchronized (this) {
+				if (failure == null)
+					failure = e;
+			}
+			cancel();
+		}
+	}
+
+	/**
+	 * Takes the branch with the lowest bound from the queue, waiting while the queue is
+	 * empty but other threads are diving. Branches that can no longer beat the
+	 * incumbent are thrown away
+	 *
+	 * @return Branch Branch to dive from, or null when the search is finished or cancelled
+	 */
+	Branch takeBranch() {
+		lock.lock();
+		try {
+			while (true) {
+				while (!queue.isEmpty() && canPrune(queue.peek().bound))
+					queue.poll();
+
+				if (cancelled)
+					return null;
+
+				if (!queue.isEmpty()) {
+					diving++;
+					return queue.poll();
+				}
+
+				if (diving == 0)
+					return null;
+
+				queueChanged.awaitUninterruptibly();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Adds a branch to the queue for any thread to take
+	 *
+	 * @param branch Branch to add
+	 */
+	void putBranch(Branch branch) {
+		lock.lock();
+		try {
+			queue.add(branch);
+			queueChanged.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Checks whether a branch with the given bound cannot hold a shorter tour than the incumbent
+	 *
+	 * @param bound Lower bound of the branch
+	 * @return boolean True if the branch can be dropped
+	 */
+	boolean canPrune(double bound) {
+		double cost = incumbent.cost();
+		return bound >= cost - Math.abs(cost) * TOLERANCE;
+	}
+
+	/**
+	 * Bounds a branch and splits it, following one half of each split and queueing the
+	 * other, until the branch being followed is dropped or holds a single tour
+	 *
+	 * @param branch Branch to start from
+	 * @param oneTree 1-tree used to bound the branches, one for each thread
+	 */
+	void dive(Branch branch, OneTree oneTree) {
+		while (branch != null && !cancelled) {
+			branchesExplored.incrementAndGet();
+
+			oneTree.edgeStates = branch.edgeStates;
+			oneTree.penalties = branch.penalties.clone();
+
+			/* only the first branch has no bound yet, and its penalties are optimised in full */
+			int iterations = branch.bound == Double.NEGATIVE_INFINITY ? OneTree.MAX_ITERATIONS : ITERATIONS_PER_BRANCH;
+			branch.bound = Math.max(branch.bound, oneTree.optimise(incumbent.cost(), iterations));
+			branch.penalties = oneTree.penalties;
+
+			if (canPrune(branch.bound))
+				return;
+
+			/* the best 1-tree is a tour, so nothing in this branch can beat it */
+			if (oneTree.isTour()) {
+				int[] path = oneTree.tourPath();
+				incumbent.offer(new Tour(path, Tour.cost(path, distanceMatrix)));
+				return;
+			}
+
+			Branch forced = null, forbidden = null;
+			int[] edge = branchingEdge(oneTree);
+
+			byte[][] forcedStates = copy(branch.edgeStates);
+			if (force(forcedStates, edge[0], edge[1]))
+				forced = new Branch(forcedStates, branch.penalties, branch.bound);
+
+			byte[][] forbiddenStates = copy(branch.edgeStates);
+			if (forbid(forbiddenStates, edge[0], edge[1]))
+				forbidden = new Branch(forbiddenStates, branch.penalties, branch.bound);
+
+			/* follow the forced half, as it is closer to a complete tour */
+			if (forced != null && forbidden != null)
+				putBranch(forbidden);
+
+			branch = forced != null ? forced : forbidden;
+		}
+	}
+
+	/**
+	 * Picks the edge to split on: the most expensive free tree edge at the city with the
+	 * most tree edges (there is always one above two, as the tree is not a tour)
+	 *
+	 * @param oneTree 1-tree of the branch
+	 * @return int[] The two cities of the edge
+	 */
+	int[] branchingEdge(OneTree oneTree) {
+		int branchCity = 0;
+
+		for (int city = 1; city < numberOfCities; city++) {
+			if (oneTree.degrees[city] > oneTree.degrees[branchCity])
+				branchCity = city;
+		}
+
+		int otherCity = -1;
+
+		/* the tree edges of a city are to its parent, to its children, and to city 0 if it is a special edge */
+		for (int city = 0; city < numberOfCities; city++) {
+			boolean treeEdge = city == 0
+					? oneTree.specialEdges[0] == branchCity || oneTree.specialEdges[1] == branchCity
+					: oneTree.parent[city] == branchCity || oneTree.parent[branchCity] == city;
+
+			if (treeEdge && oneTree.edgeStates[branchCity][city] == OneTree.FREE
+					&& (otherCity < 0 || oneTree.reducedCost(branchCity, city) > oneTree.reducedCost(branchCity, otherCity)))
+				otherCity = city;
+		}
+
+		if (otherCity < 0)
+			throw new IllegalStateException("City " + branchCity + " has no free tree edge to split on");
+
+		return new int[] { branchCity, otherCity };
+	}
+
+	/**
+	 * Forces an edge into the tour and follows through what that implies
+	 *
+	 * @param edgeStates Edge states of the branch, which are changed
+	 * @param fromCity One end of the edge
+	 * @param toCity Other end of the edge
+	 * @return boolean False if no tour is left in the branch
+	 */
+	boolean force(byte[][] edgeStates, int fromCity, int toCity) {
+		if (edgeStates[fromCity][toCity] != OneTree.FREE)
+			return edgeStates[fromCity][toCity] == OneTree.FORCED;
+
+		edgeStates[fromCity][toCity] = edgeStates[toCity][fromCity] = OneTree.FORCED;
+
+		return checkCity(edgeStates, fromCity) && checkCity(edgeStates, toCity) && checkChain(edgeStates, fromCity);
+	}
+
+	/**
+	 * Forbids an edge from the tour and follows through what that implies
+	 *
+	 * @param edgeStates Edge states of the branch, which are changed
+	 * @param fromCity One end of the edge
+	 * @param toCity Other end of the edge
+	 * @return boolean False if no tour is left in the branch
+	 */
+	boolean forbid(byte[][] edgeStates, int fromCity, int toCity) {
+		if (edgeStates[fromCity][toCity] != OneTree.FREE)
+			return edgeStates[fromCity][toCity] == OneTree.FORBIDDEN;
+
+		edgeStates[fromCity][toCity] = edgeStates[toCity][fromCity] = OneTree.FORBIDDEN;
+
+		return checkCity(edgeStates, fromCity) && checkCity(edgeStates, toCity);
+	}
+
+	/**
+	 * Makes sure a city can still have exactly two edges: with two forced edges its
+	 * free edges are forbidden, and with only two edges left they are forced
+	 *
+	 * @param edgeStates Edge states of the branch, which may be changed
+	 * @param city City to check
+	 * @return boolean False if the city cannot have two edges
+	 */
+	boolean checkCity(byte[][] edgeStates, int city) {
+		int forcedEdges = 0, allowedEdges = 0;
+
+		for (int other = 0; other < numberOfCities; other++) {
+			if (edgeStates[city][other] == OneTree.FORCED)
+				forcedEdges++;
+			if (edgeStates[city][other] != OneTree.FORBIDDEN)
+				allowedEdges++;
+		}
+
+		if (forcedEdges > 2 || allowedEdges < 2)
+			return false;
+
+		for (int other = 0; other < numberOfCities; other++) {
+			if (edgeStates[city][other] != OneTree.FREE)
+				continue;
+
+			if (forcedEdges == 2 && !forbid(edgeStates, city, other))
+				return false;
+			if (allowedEdges == 2 && !force(edgeStates, city, other))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Follows the chain of forced edges through a city. A chain that closes into a
+	 * loop must hold every city, and a chain that does not yet hold every city must not
+	 * be closed, so the edge between its two ends is forbidden
+	 *
+	 * @param edgeStates Edge states of the branch, which may be changed
+	 * @param city City in the chain, which has at least one forced edge
+	 * @return boolean False if the forced edges make a loop that misses cities
+	 */
+	boolean checkChain(byte[][] edgeStates, int city) {
+		int[] ends = new int[2];
+		int length = 1;
+
+		for (int direction = 0; direction < 2; direction++) {
+			int previous = -1, current = city;
+
+			while (true) {
+				int next = -1;
+
+				/* the first step goes to the first or second forced edge of the city */
+				for (int other = 0, seen = 0; other < numberOfCities && next < 0; other++) {
+					if (other != previous && edgeStates[current][other] == OneTree.FORCED
+							&& (current != city || seen++ == direction))
+						next = other;
+				}
+
+				if (next < 0)
+					break;
+
+				/* back at the start, so the chain is a loop */
+				if (next == city)
+					return length == numberOfCities;
+
+				previous = current;
+				current = next;
+				length++;
+			}
+			ends[direction] = current;
+		}
+
+		/* two cities are already joined by the edge that was forced */
+		if (length > 2 && length < numberOfCities)
+			return forbid(edgeStates, ends[0], ends[1]);
+
+		return true;
+	}
+
+	/**
+	 * Copies the edge states of a branch
+	 */
+	static byte[][] copy(byte[][] edgeStates) {
+		byte[][] copy = new byte[edgeStates.length][];
+
+		for (int city = 0; city < edgeStates.length; city++)
+			copy[city] = edgeStates[city].clone();
+
+		return copy;
+	}
+}
@@ -0,0 +1,342 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Checkpoints.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Checkpoints class, saves a Held-Karp solve to a directory at the end of every layer,
+ * so that a solve which is stopped part way through (a restart, or running out of
+ * memory) can be resumed from the last layer that was saved instead of from the start.
+ * The states are in a rolling DenseTable, so all that is needed to carry on from layer k
+ * is the costs of layers k - 1 and k (the two the table holds) and the previous cities
+ * of layers 1 to k, which are needed to backtrack the path. The directory holds:
+ *  - previous-k.layer, the packed previous cities of layer k, written once,
+ *  - costs-k.layer, the costs of layer k, deleted once layer k + 2 has been saved,
+ *  - checkpoint, the last complete layer and the solver's settings: the fingerprint of
+ *    the distance matrix, the eliminated edges, meet-in-the-middle and the hull order.
+ * A solve is only resumed with the same settings, as the saved states depend on them.
+ *
+ * Every file is written next to its name and then moved over it, and the checkpoint
+ * file is only moved once the layer files are complete, so a solve stopped at any
+ * moment leaves the last complete checkpoint behind. Layers are saved on a background
+ * thread while the next layer is computed. A layer's costs are never written again once
+ * it is complete, so the thread can read them at the same time; only one layer is saved
+ * at a time, and the solve only waits for it if saving a layer takes longer than computing one.
+ */
+public class Checkpoints implements AutoCloseable {
+
+	static final int MAGIC = 0x50434B48; /* "HKCP" */
+	static final int VERSION = 1;
+	static final String CHECKPOINT_FILE = "checkpoint";
+	static final int BUFFER_BYTES = 1 << 20;
+
+	Path directory;
+	ExecutorService writer;
+	Future<?> pendingWrite; /* the layer being saved, or null */
+
+	/**
+	 * Checkpoints constructor
+	 *
+	 * @param directory Directory to save the checkpoints in, which is created if needed
+	 * @param resume If true, the solve carries on from the checkpoint in the directory,
+	 *               otherwise any checkpoint there is discarded
+	 */
+	public Checkpoints(Path directory, boolean resume) {
+		this.directory = directory;
+
+		try {
+			Files.createDirectories(directory);
+			if (!resume)
+				Files.deleteIfExists(directory.resolve(CHECKPOINT_FILE));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not create " + directory, e);
+		}
+
+		this.writer = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "checkpoint-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Gets the table of a solver that can be checkpointed
+	 *
+	 * @param costTable Table the solver stores its states in
+	 * @return DenseTable The same table
+	 */
+	static DenseTable checkTable(CostTable costTable) {
+		if (!(costTable instanceof DenseTable) || !((DenseTable) costTable).rolling
+				|| !((DenseTable) costTable).keepPreviousCities)
+			throw new IllegalArgumentException("Checkpoints need a DenseTable with rolling layers and previous cities");
+
+		return (DenseTable) costTable;
+	}
+
+	/**
+	 * Loads the last complete checkpoint into a solver's table, if there is one
+	 *
+	 * @param heldKarp Solver about to compute its layers, with every setting already made
+	 * @param largestSubset Size of the subsets in the last layer the solver will compute
+	 * @return int The last layer that was loaded, or 0 if there is no checkpoint
+	 */
+	public int resume(HeldKarp heldKarp, int largestSubset) {
+		DenseTable denseTable = checkTable(heldKarp.costTable);
+		Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+
+		if (!Files.exists(checkpointFile))
+			return 0;
+
+		int lastLayer;
+
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(checkpointFile))) {
+			if (in.readInt() != MAGIC)
+				throw new IllegalArgumentException(checkpointFile + " is not a Held-Karp checkpoint");
+
+			int version = in.readInt();
+			if (version != VERSION)
+				throw new IllegalArgumentException(checkpointFile + " is version " + version + ", only version "
+						+ VERSION + " can be read");
+
+			lastLayer = in.readInt();
+			byte[] settings = new byte[in.readInt()];
+			in.readFully(settings);
+
+			if (!Arrays.equals(settings, settings(heldKarp)))
+				throw new IllegalArgumentException(checkpointFile + " was saved by a solve with a different "
+						+ "distance matrix or settings");
+
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read " + checkpointFile, e);
+		}
+
+		if (lastLayer > largestSubset)
+			throw new IllegalArgumentException(checkpointFile + " is past the last layer of the solve");
+
+		/* the table holds the costs of the two newest layers, and previous cities of every layer */
+		for (int size = 1; size <= lastLayer; size++) {
+			long states = denseTable.layerSize(size);
+			long[] words = new long[(int) PredecessorTable.words(states)];
+
+			readLayer(previousFile(size), words, null);
+			denseTable.previousCities.layers[size] = new AtomicLongArray(words);
+
+			if (size >= lastLayer - 1) {
+				denseTable.costs[size] = new double[(int) states];
+				readLayer(costsFile(size), null, denseTable.costs[size]);
+			}
+		}
+		denseTable.releasedLayers = Math.max(0, lastLayer - 2);
+
+		return lastLayer;
+	}
+
+	/**
+	 * Starts saving a layer that has just been completed, once the layer before it has
+	 * been saved. Returns straight away, so the next layer is computed while it is written
+	 *
+	 * @param heldKarp Solver that computed the layer
+	 * @param subsetSize Size of the subsets in the layer
+	 */
+	public void layerSolved(HeldKarp heldKarp, int subsetSize) {
+		DenseTable denseTable = checkTable(heldKarp.costTable);
+		byte[] settings = settings(heldKarp);
+
+		/* the arrays are taken now, as the table drops its reference to them in two layers */
+		double[] costs = denseTable.costs[subsetSize];
+		AtomicLongArray previousCities = denseTable.previousCities.layers[subsetSize];
+
+		await();
+		pendingWrite = writer.submit(() -> save(subsetSize, costs, previousCities, settings));
+	}
+
+	/**
+	 * Waits for the layer being saved, if there is one
+	 */
+	public void await() {
+		if (pendingWrite == null)
+			return;
+
+		try {
+			pendingWrite.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while saving a checkpoint", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException)
+				throw (UncheckedIOException) e.getCause();
+			throw new IllegalStateException("A checkpoint could not be saved", e.getCause());
+		} finally {
+			pendingWrite = null;
+		}
+	}
+
+	/**
+	 * Waits for the layer being saved, then stops the writer thread
+	 */
+	@Override
+	public void close() {
+		try {
+			await();
+		} finally {
+			writer.shutdown();
+		}
+	}
+
+	/**
+	 * Saves a layer, then moves the checkpoint on to it. Runs on the writer thread
+	 */
+	void save(int subsetSize, double[] costs, AtomicLongArray previousCities, byte[] settings) {
+		writeLayer(previousFile(subsetSize), previousCities, null);
+		writeLayer(costsFile(subsetSize), null, costs);
+
+		Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+		Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporary))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(subsetSize);
+			out.writeInt(settings.length);
+			out.write(settings);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write " + temporary, e);
+		}
+
+		try {
+			Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			/* resuming from this checkpoint only needs the costs of this layer and the one below it */
+			if (subsetSize > 2)
+				Files.deleteIfExists(costsFile(subsetSize - 2));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not update " + checkpointFile, e);
+		}
+	}
+
+	/**
+	 * Writes the words or the costs of a layer to a file, little-endian, through a temporary file
+	 */
+	void writeLayer(Path file, AtomicLongArray words, double[] costs) {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		int length = words != null ? words.length() : costs.length;
+
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+			for (int index = 0; index < length; index++) {
+				if (words != null)
+					buffer.putLong(words.get(index));
+				else
+					buffer.putDouble(costs[index]);
+
+				if (!buffer.hasRemaining() || index == length - 1) {
+					buffer.flip();
+					while (buffer.hasRemaining())
+						channel.write(buffer);
+					buffer.clear();
+				}
+			}
+			channel.force(true);
+
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write " + temporary, e);
+		}
+
+		try {
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not replace " + file, e);
+		}
+	}
+
+	/**
+	 * Reads a file written by writeLayer() into the words or the costs of a layer
+	 */
+	void readLayer(Path file, long[] words, double[] costs) {
+		int length = words != null ? words.length : costs.length;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() != (long) length * Long.BYTES)
+				throw new IllegalArgumentException(file + " does not hold a whole layer");
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.flip();
+
+			for (int index = 0; index < length; index++) {
+				if (!buffer.hasRemaining()) {
+					int read;
+					buffer.clear();
+					do {
+						read = channel.read(buffer);
+					} while (read > 0 && buffer.hasRemaining());
+					buffer.flip();
+				}
+
+				if (words != null)
+					words[index] = buffer.getLong();
+				else
+					costs[index] = buffer.getDouble();
+			}
+
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read " + file, e);
+		}
+	}
+
+	/**
+	 * Encodes everything that decides which states a solve computes, so that a
+	 * checkpoint is only resumed by a solve that would compute the same states
+	 *
+	 * @param heldKarp Solver to describe
+	 * @return byte[] The solver's settings
+	 */
+	static byte[] settings(HeldKarp heldKarp) {
+		ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 2 + 4 + 8 * StateTable.MAX_CITIES);
+
+		buffer.putInt(heldKarp.distanceMatrix.length);
+		buffer.putLong(TableFile.fingerprint(heldKarp.distanceMatrix));
+		buffer.put((byte) (heldKarp.meetInTheMiddle ? 1 : 0));
+		buffer.put((byte) (heldKarp.convexHullOrder != null ? 1 : 0));
+
+		long[] neighbourMasks = heldKarp.neighbourMasks;
+		buffer.putInt(neighbourMasks == null ? -1 : neighbourMasks.length);
+		if (neighbourMasks != null) {
+			for (long neighbourMask : neighbourMasks)
+				buffer.putLong(neighbourMask);
+		}
+
+		byte[] settings = new byte[buffer.position()];
+		buffer.flip();
+		buffer.get(settings);
+		return settings;
+	}
+
+	Path previousFile(int subsetSize) {
+		return directory.resolve("previous-" + subsetSize + ".layer");
+	}
+
+	Path costsFile(int subsetSize) {
+		return directory.resolve("costs-" + subsetSize + ".layer");
+	}
+}
@@ -0,0 +1,331 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConcurrentStateTable.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * ConcurrentStateTable class, a version of StateTable that many threads can put
+ * states into at once without any locks. Slots are claimed by compare-and-set on
+ * the key, the number of states is counted with a LongAdder (so threads do not
+ * fight over a single counter), and a resize is shared between every thread that
+ * runs into it: the old table is copied across in chunks, with each thread taking
+ * the next chunk, while new states go straight into the larger table.
+ *
+ * A thread that is reading states never waits for a resize or for threads writing
+ * other states. Each state is expected to be put by one thread at a time (which is
+ * always the case in Held-Karp, where every state is computed exactly once); if
+ * two threads put the same state at the same moment, either value may be kept.
+ */
+public class ConcurrentStateTable implements CostTable {
+
+	static final long EMPTY = -1; /* slot has never been used */
+	static final long MOVED = -2; /* slot has been copied into the next table */
+	static final long PENDING = 1L << 62; /* set on a key while its cost and previous city are written */
+	static final int TRANSFER_CHUNK = 1024; /* number of slots a thread copies at a time during a resize */
+
+	AtomicReference<Table> current;
+	LongAdder total = new LongAdder(); /* total number of states in the table */
+
+	/**
+	 * Table, one generation of the slot arrays. The cost and previous city of a slot
+	 * are written before its key, and the key is written with a volatile set, so any
+	 * thread that reads the key also sees the values written before it
+	 */
+	static class Table {
+		final int size;
+		final AtomicLongArray keys;
+		final double[] costs;
+		final byte[] previousCities;
+
+		volatile Table next; /* larger table that this one is being copied into */
+		final AtomicBoolean resizing = new AtomicBoolean(); /* set once a resize has been started */
+		final AtomicInteger transferIndex = new AtomicInteger(); /* next chunk to copy */
+		final AtomicInteger transferred = new AtomicInteger(); /* chunks that have been copied */
+
+		Table(int size) {
+			this.size = size;
+			this.keys = new AtomicLongArray(size);
+			this.costs = new double[size];
+			this.previousCities = new byte[size];
+
+			for (int pos = 0; pos < size; pos++)
+				keys.set(pos, EMPTY);
+		}
+
+		int hash(long key) {
+			return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(size)));
+		}
+
+		int chunks() {
+			return (size + TRANSFER_CHUNK - 1) / TRANSFER_CHUNK;
+		}
+
+		boolean isMoved() {
+			return next != null && transferred.get() == chunks();
+		}
+	}
+
+	/**
+	 * ConcurrentStateTable constructor, sizes the table so that the expected
+	 * number of states fits without a resize
+	 *
+	 * @param expectedStates Number of states that are expected to be stored
+	 */
+	public ConcurrentStateTable(int expectedStates) {
+		this.current = new AtomicReference<>(new Table(StateTable.tableSize(expectedStates)));
+	}
+
+	/**
+	 * Gets the number of states in the table. This is exact when no
+	 * thread is putting a state at the same time
+	 *
+	 * @return long Number of states
+	 */
+	public long size() {
+		return total.sum();
+	}
+
+	@Override
+	public double cost(long subset, int city) {
+		long key = StateTable.key(subset, city);
+
+		/* a state that is not in a table may have been moved into the next one */
+		for (Table table = current.get(); table != null; table = table.next) {
+			int pos = find(table, key);
+			if (pos >= 0)
+				return table.costs[pos];
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	@Override
+	public int previousCity(long subset, int city) {
+		long key = StateTable.key(subset, city);
+
+		for (Table table = current.get(); table != null; table = table.next) {
+			int pos = find(table, key);
+			if (pos >= 0)
+				return table.previousCities[pos];
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the position of a key in one table using linear probing. Moved slots
+	 * are skipped over, as the key may still be further along the probe sequence
+	 *
+	 * @param table Table to search
+	 * @param key Key to search for
+	 * @return int Position of the key, or -1 if it is not in this table
+	 */
+	int find(Table table, long key) {
+
+		/* every slot of a table that has been fully copied is marked as moved */
+		if (table.isMoved())
+			return -1;
+
+		int mask = table.size - 1;
+		int pos = table.hash(key);
+
+		for (int probes = 0; probes < table.size;) {
+			long slotKey = table.keys.get(pos);
+
+			if (slotKey == key)
+				return pos;
+
+			/* the state is being written by another thread, which
+			   only happens if it is put and read at the same time */
+			if (slotKey == (key | PENDING)) {
+				Thread.yield();
+				continue;
+			}
+
+			if (slotKey == EMPTY)
+				return -1;
+
+			pos = (pos + 1) & mask;
+			probes++;
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean allowsConcurrentPuts() {
+		return true;
+	}
+
+	@Override
+	public void put(long subset, int city, double cost, int previousCity) {
+		long key = StateTable.key(subset, city);
+		Table table = current.get();
+
+		while (!tryPut(table, key, cost, previousCity, false))
+			table = helpResize(table);
+	}
+
+	/**
+	 * Tries to put a state into one table
+	 *
+	 * @param table Table to put the state into
+	 * @param key Key of the state
+	 * @param cost Cost of the state
+	 * @param previousCity Previous city of the state
+	 * @param onlyIfAbsent If true, a state that is already in the table is left as it is
+	 * @return boolean True if the state was stored, false if it must go into the next table
+	 */
+	boolean tryPut(Table table, long key, double cost, int previousCity, boolean onlyIfAbsent) {
+
+		/* once a resize has started, new states only go into the larger table */
+		if (table.next != null)
+			return false;
+
+		int mask = table.size - 1;
+		int pos = table.hash(key);
+
+		for (int probes = 0; probes < table.size;) {
+			long slotKey = table.keys.get(pos);
+
+			if (slotKey == EMPTY) {
+				if (!table.keys.compareAndSet(pos, EMPTY, key | PENDING))
+					continue; /* another thread claimed the slot first, look at it again */
+
+				table.costs[pos] = cost;
+				table.previousCities[pos] = (byte) previousCity;
+				table.keys.set(pos, key);
+
+				total.increment();
+				if ((pos & 0x3F) == 0 && total.sum() > table.size / 4 * 3)
+					startResize(table);
+
+				return true;
+			}
+
+			if (slotKey == key) {
+				if (onlyIfAbsent)
+					return true;
+
+				/* claim the existing slot so that a resize cannot copy it half written */
+				if (!table.keys.compareAndSet(pos, key, key | PENDING))
+					continue;
+
+				table.costs[pos] = cost;
+				table.previousCities[pos] = (byte) previousCity;
+				table.keys.set(pos, key);
+				return true;
+			}
+
+			if (slotKey == (key | PENDING)) {
+				Thread.yield();
+				continue;
+			}
+
+			/* the table is being resized, so the state goes into the next table */
+			if (slotKey == MOVED)
+				return false;
+
+			pos = (pos + 1) & mask;
+			probes++;
+		}
+
+		/* every slot is in use, so the table has to be resized */
+		startResize(table);
+		return false;
+	}
+
+	/**
+	 * Starts a resize of the given table, unless one has already been started
+	 *
+	 * @param table Table to resize
+	 */
+	void startResize(Table table) {
+
+		/* only the thread that wins the flag allocates the larger table */
+		if (table.next == null && table.resizing.compareAndSet(false, true))
+			table.next = new Table(table.size * 2);
+	}
+
+	/**
+	 * Copies chunks of the given table into its next table until every chunk has
+	 * been taken, then moves the current table past any table that has been fully copied
+	 *
+	 * @param table Table that is being resized
+	 * @return Table The next table, which new states should be put into
+	 */
+	Table helpResize(Table table) {
+		Table next;
+
+		/* the thread that started the resize may still be allocating the next table */
+		while ((next = table.next) == null)
+			Thread.yield();
+
+		int chunks = table.chunks();
+
+		for (int chunk = table.transferIndex.getAndIncrement(); chunk < chunks; chunk = table.transferIndex
+				.getAndIncrement()) {
+
+			int end = Math.min(table.size, (chunk + 1) * TRANSFER_CHUNK);
+			for (int pos = chunk * TRANSFER_CHUNK; pos < end; pos++)
+				transfer(table, pos, next);
+
+			table.transferred.incrementAndGet();
+		}
+
+		/* move the current table past every table that has been fully copied. a larger
+		   table can finish copying before the one in front of it, so this is a loop */
+		Table oldest;
+		while ((oldest = current.get()).isMoved())
+			current.compareAndSet(oldest, oldest.next);
+
+		return next;
+	}
+
+	/**
+	 * Copies one slot into the next table and marks it as moved. A slot that holds
+	 * a state is claimed first, so nothing can change it between the copy and the mark
+	 *
+	 * @param table Table that is being resized
+	 * @param pos Position of the slot
+	 * @param next Table to copy into
+	 */
+	void transfer(Table table, int pos, Table next) {
+		while (true) {
+			long slotKey = table.keys.get(pos);
+
+			if (slotKey == MOVED)
+				return;
+
+			if (slotKey == EMPTY) {
+				if (table.keys.compareAndSet(pos, EMPTY, MOVED))
+					return;
+				continue;
+			}
+
+			if ((slotKey & PENDING) != 0) {
+				Thread.yield(); /* another thread is writing this slot */
+				continue;
+			}
+
+			if (!table.keys.compareAndSet(pos, slotKey, slotKey | PENDING))
+				continue;
+
+			/* a state put straight into the next table is newer than this copy, so it is kept */
+			Table target = next;
+			while (!tryPut(target, slotKey, table.costs[pos], table.previousCities[pos], true))
+				target = helpResize(target);
+
+			/* the state was counted when it went into this table, and has
+			   been counted again in the next table, either as this copy
+			   or as the newer state that was kept */
+			total.decrement();
+			table.keys.set(pos, MOVED);
+			return;
+		}
+	}
+}
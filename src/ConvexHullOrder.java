@@ -0,0 +1,171 @@
+import java.util.Arrays;
+
+/**
+ * ConvexHullOrder.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * ConvexHullOrder class, rules out Held-Karp states that visit the corners of the convex
+ * hull out of order. For cities on a plane with straight line distances, an optimal tour
+ * never crosses itself, so it visits the corners of the convex hull in the order they
+ * appear around the hull. The path of a state starts at city 0, so the corners it has
+ * visited must form one unbroken run around the hull (which also holds city 0 if city 0 is
+ * a corner, at one end), and if the path ends at a corner, it must be at an end of that run.
+ *
+ * States are checked a subset at a time: a subset whose corners do not form a run has no
+ * valid states at all, otherwise allowedEnds() gives the cities the path may end at. This
+ * only holds for Euclidean distances between the given coordinates.
+ */
+public class ConvexHullOrder {
+
+	int[] corners; /* cities on the corners of the hull, in order around it */
+	int[] ringPositions; /* ringPositions[c] = position of city c in corners, or -1 */
+	long fullRing; /* bitmask of every ring position */
+
+	/**
+	 * ConvexHullOrder constructor, finds the convex hull of the cities
+	 *
+	 * @param coordinates x and y coordinates of every city
+	 */
+	public ConvexHullOrder(double[][] coordinates) {
+		this.corners = hull(coordinates);
+		this.ringPositions = new int[coordinates.length];
+		this.fullRing = (1L << corners.length) - 1;
+
+		Arrays.fill(ringPositions, -1);
+		for (int pos = 0; pos < corners.length; pos++)
+			ringPositions[corners[pos]] = pos;
+	}
+
+	/**
+	 * Finds the corners of the convex hull using Andrew's monotone chain. Cities in
+	 * the middle of a straight edge of the hull are not corners, and are left out
+	 *
+	 * @param coordinates x and y coordinates of every city
+	 * @return int[] Cities on the corners of the hull, anticlockwise
+	 */
+	static int[] hull(double[][] coordinates) {
+		Integer[] order = new Integer[coordinates.length];
+		for (int city = 0; city < coordinates.length; city++)
+			order[city] = city;
+
+		Arrays.sort(order, (a, b) -> coordinates[a][0] != coordinates[b][0]
+				? Double.compare(coordinates[a][0], coordinates[b][0])
+				: Double.compare(coordinates[a][1], coordinates[b][1]));
+
+		if (coordinates.length < 3) {
+			int[] corners = new int[coordinates.length];
+			for (int pos = 0; pos < corners.length; pos++)
+				corners[pos] = order[pos];
+			return corners;
+		}
+
+		int[] corners = new int[2 * coordinates.length];
+		int size = 0;
+
+		/* the lower half of the hull, left to right, then the upper half, right to left */
+		for (int pass = 0; pass < 2; pass++) {
+			int start = size;
+
+			for (int pos = 0; pos < order.length; pos++) {
+				int city = order[pass == 0 ? pos : order.length - 1 - pos];
+
+				while (size >= start + 2 && turn(coordinates, corners[size - 2], corners[size - 1], city) <= 0)
+					size--;
+				corners[size++] = city;
+			}
+			size--; /* the last city of each half is the first of the other */
+		}
+		return Arrays.copyOf(corners, size);
+	}
+
+	/**
+	 * Gets the direction of the turn from a to b to c
+	 *
+	 * @return double Positive for anticlockwise, negative for clockwise, 0 if in a line
+	 */
+	static double turn(double[][] coordinates, int a, int b, int c) {
+		return (coordinates[b][0] - coordinates[a][0]) * (coordinates[c][1] - coordinates[a][1])
+				- (coordinates[b][1] - coordinates[a][1]) * (coordinates[c][0] - coordinates[a][0]);
+	}
+
+	/**
+	 * Finds the cities a path from city 0 through a subset may end at
+	 *
+	 * @param subset Bitmask of the cities in the subset
+	 * @return long Bitmask of the cities in the subset the path may end at, 0 if none
+	 */
+	public long allowedEnds(long subset) {
+		long ring = 0;
+
+		for (int pos = 0; pos < corners.length; pos++) {
+			if (corners[pos] == 0 || (subset & (1L << corners[pos])) != 0)
+				ring |= 1L << pos;
+		}
+
+		/* no corners visited, or all of them (any end is fine, unless the path started
+		   at a corner, in which case it must end next to where it started) */
+		if (ring == 0 || (ring == fullRing && ringPositions[0] < 0))
+			return subset;
+
+		if (ring == fullRing)
+			return endsAt(subset, neighbour(ringPositions[0], 1), neighbour(ringPositions[0], -1));
+
+		/* the visited corners must be one run around the ring, which is either a run
+		   of bits, or wraps past the last position so the unvisited corners are a run */
+		int first, last;
+		long unvisited = fullRing & ~ring;
+
+		if (isRun(ring)) {
+			first = Long.numberOfTrailingZeros(ring);
+			last = 63 - Long.numberOfLeadingZeros(ring);
+		} else if (isRun(unvisited)) {
+			first = 64 - Long.numberOfLeadingZeros(unvisited);
+			last = Long.numberOfTrailingZeros(unvisited) - 1;
+		} else {
+			return 0;
+		}
+
+		/* a path from a corner grows the run from that corner, so it ends at the other end */
+		int start = ringPositions[0];
+		if (start >= 0) {
+			if (start == first)
+				return endsAt(subset, last, last);
+			if (start == last)
+				return endsAt(subset, first, first);
+			return 0;
+		}
+
+		return endsAt(subset, first, last);
+	}
+
+	/**
+	 * Gets the cities of a subset that are not corners, plus the corners at the given ring positions
+	 */
+	long endsAt(long subset, int firstEnd, int secondEnd) {
+		long ends = subset;
+
+		for (int pos = 0; pos < corners.length; pos++) {
+			if (pos != firstEnd && pos != secondEnd)
+				ends &= ~(1L << corners[pos]);
+		}
+		return ends;
+	}
+
+	/**
+	 * Gets the ring position next to the given one, in either direction
+	 */
+	int neighbour(int pos, int direction) {
+		return (pos + direction + corners.length) % corners.length;
+	}
+
+	/**
+	 * Checks whether the set bits of a mask are all next to each other
+	 */
+	static boolean isRun(long mask) {
+		long shifted = mask >>> Long.numberOfTrailingZeros(mask);
+		return mask != 0 && (shifted & (shifted + 1)) == 0;
+	}
+}
@@ -0,0 +1,63 @@
+/**
+ * CostTable.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * CostTable interface, implemented by every structure that can store the
+ * Held-Karp states. A state is a set of cities (as a bitmask, bit i is city i)
+ * and the city the path through that set ends at. HeldKarp only uses these
+ * methods, so the way states are stored can be swapped without changing the algorithm.
+ */
+public interface CostTable {
+
+	/**
+	 * Gets the cost of a state
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @return double Cost of the state, or infinity if it has not been stored
+	 */
+	double cost(long subset, int city);
+
+	/**
+	 * Gets the previous city of a state, used for backtracking
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @return int Previous city of the state, or -1 if it has not been stored
+	 */
+	int previousCity(long subset, int city);
+
+	/**
+	 * Stores the cost and previous city of a state
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @param cost Cost of the state
+	 * @param previousCity Previous city of the state
+	 */
+	void put(long subset, int city, double cost, int previousCity);
+
+	/**
+	 * Called before each layer of states is computed, so that tables which store
+	 * layers separately can set the layer up (and free older ones) before any thread
+	 * puts a state into it. Tables that store every state together do nothing
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 */
+	default void allocateLayer(int subsetSize) {
+	}
+
+	/**
+	 * Checks whether states can be put into the table from many threads at once,
+	 * as ParallelHeldKarp does. Each state of a layer must be stored without
+	 * touching the others, or a table that grows could lose states while it moves them
+	 *
+	 * @return boolean True if puts from many threads are safe
+	 */
+	default boolean allowsConcurrentPuts() {
+		return false;
+	}
+}
@@ -0,0 +1,258 @@
+import java.util.Arrays;
+
+/**
+ * DenseTable.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * DenseTable class, stores the Held-Karp states in flat arrays without any hashing.
+ * Held-Karp visits every subset of the cities 1 to n - 1 exactly once, so each
+ * subset of size k can be given a unique rank between 0 and C(n - 1, k) - 1 using
+ * the combinatorial number system (colex order). The cost of the state that ends
+ * at the p-th smallest city of that subset is kept at index rank * k + p of the
+ * array for layer k. There are no collisions or resizes, and the table uses exactly
+ * one slot per state.
+ *
+ * Costs of layer k are only read while layer k + 1 is computed, so a table made with
+ * rolling layers frees each cost layer as soon as the layer two above it is allocated.
+ * Only two cost layers are ever held at once; the previous cities of every layer are
+ * kept, as they are all needed to backtrack the path. They are packed into 5 bits
+ * per state in a PredecessorTable. A table can
+ * also be made without previous cities at all, for solvers that find the path another way.
+ */
+public class DenseTable implements CostTable {
+
+	int cities; /* number of cities that can be in a subset, n - 1 as city 0 is the start */
+	SubsetSpace subsetSpace; /* ranks the subsets of the cities 1 to n - 1 */
+	double[][] costs; /* costs[k] holds every state of layer k, allocated when first used */
+	PredecessorTable previousCities; /* null if previous cities are not kept */
+	boolean rolling; /* if true, only the two newest cost layers are kept */
+	int releasedLayers; /* cost layers 1 to releasedLayers have been freed */
+	boolean keepPreviousCities; /* if false, previousCities is never created */
+
+	/* states that return to the first city (city 0 is never in a subset) only have
+	   one slot per subset, so they are kept apart from the other states */
+	double[][] returnCosts;
+	byte[][] returnPreviousCities;
+
+	/**
+	 * DenseTable constructor, sets up the ranking of the subsets of the given
+	 * number of cities. No layer is allocated until it is first used
+	 *
+	 * @param numberOfCities Total number of cities, including the first city
+	 */
+	public DenseTable(int numberOfCities) {
+		this(numberOfCities, false);
+	}
+
+	/**
+	 * DenseTable constructor
+	 *
+	 * @param numberOfCities Total number of cities, including the first city
+	 * @param rolling If true, each cost layer is freed once the layer above it is complete
+	 */
+	public DenseTable(int numberOfCities, boolean rolling) {
+		this(numberOfCities, rolling, true);
+	}
+
+	/**
+	 * DenseTable constructor
+	 *
+	 * @param numberOfCities Total number of cities, including the first city
+	 * @param rolling If true, each cost layer is freed once the layer above it is complete
+	 * @param keepPreviousCities If false, no previous cities are stored and the path cannot be backtracked
+	 */
+	public DenseTable(int numberOfCities, boolean rolling, boolean keepPreviousCities) {
+		this.cities = numberOfCities - 1;
+		this.rolling = rolling;
+		this.keepPreviousCities = keepPreviousCities;
+
+		if (numberOfCities > StateTable.MAX_CITIES)
+			throw new IllegalArgumentException("DenseTable supports at most " + StateTable.MAX_CITIES + " cities");
+
+		this.subsetSpace = new SubsetSpace(cities, 1);
+
+		if (!fitsInArrays(numberOfCities))
+			throw new IllegalArgumentException("The layers of " + numberOfCities
+					+ " cities are too large for an array, use an OffHeapTable");
+
+		this.costs = new double[cities + 1][];
+		this.previousCities = keepPreviousCities ? new PredecessorTable(subsetSpace) : null;
+		this.returnCosts = new double[cities + 1][];
+		this.returnPreviousCities = new byte[cities + 1][];
+	}
+
+	/**
+	 * Checks whether every layer of the given number of cities fits in a single
+	 * java array. The largest layer is the middle one, which passes 2^31 states at 31 cities
+	 *
+	 * @param numberOfCities Total number of cities, including the first city
+	 * @return boolean True if a DenseTable can hold the states
+	 */
+	public static boolean fitsInArrays(int numberOfCities) {
+		SubsetSpace subsetSpace = new SubsetSpace(Math.max(numberOfCities - 1, 0), 1);
+
+		for (int size = 1; size < numberOfCities; size++) {
+			if (subsetSpace.count(size) * size > Integer.MAX_VALUE - 8)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the number of states in a layer, which is the number of subsets of
+	 * that size multiplied by the number of cities each path can end at
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 * @return long Number of states in the layer
+	 */
+	public long layerSize(int subsetSize) {
+		return subsetSpace.count(subsetSize) * subsetSize;
+	}
+
+	/**
+	 * Gets the largest number of bytes the table will use while Held-Karp runs
+	 * (one double for each state whose cost is held, and 5 bits for every state
+	 * if previous cities are kept)
+	 *
+	 * @return long Peak memory used by the states, in bytes
+	 */
+	public long memoryRequired() {
+		long states = 0, heldCosts = 0;
+
+		for (int size = 1; size <= cities; size++) {
+			states += layerSize(size);
+
+			/* rolling tables hold at most this layer and the one below it */
+			if (rolling)
+				heldCosts = Math.max(heldCosts, layerSize(size) + layerSize(size - 1));
+		}
+
+		if (!rolling)
+			heldCosts = states;
+
+		return heldCosts * Double.BYTES + (keepPreviousCities ? previousCities.memoryRequired() : 0);
+	}
+
+	/**
+	 * Gets the index of a state in the array of its layer
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at, must be in the subset
+	 * @return int Index of the state
+	 */
+	int index(long subset, int city) {
+		return (int) subsetSpace.index(subset, city);
+	}
+
+	@Override
+	public double cost(long subset, int city) {
+		int size = Long.bitCount(subset);
+
+		if ((subset & (1L << city)) == 0) {
+			if (returnCosts[size] == null)
+				return Double.POSITIVE_INFINITY;
+			return returnCosts[size][(int) subsetSpace.rank(subset)];
+		}
+
+		if (size <= releasedLayers)
+			throw new IllegalStateException("Costs of layer " + size + " have been freed");
+
+		if (costs[size] == null)
+			return Double.POSITIVE_INFINITY;
+		return costs[size][index(subset, city)];
+	}
+
+	@Override
+	public int previousCity(long subset, int city) {
+		int size = Long.bitCount(subset);
+
+		if ((subset & (1L << city)) == 0) {
+			if (returnPreviousCities[size] == null)
+				return -1;
+			return returnPreviousCities[size][(int) subsetSpace.rank(subset)];
+		}
+
+		if (previousCities == null || !previousCities.hasLayer(size))
+			return -1;
+		return previousCities.get(size, index(subset, city));
+	}
+
+	@Override
+	public void put(long subset, int city, double cost, int previousCity) {
+		int size = Long.bitCount(subset);
+
+		/* a state that ends outside of its subset returns to the first city */
+		if ((subset & (1L << city)) == 0) {
+			if (returnCosts[size] == null)
+				allocateReturnLayer(size);
+
+			int rank = (int) subsetSpace.rank(subset);
+			returnCosts[size][rank] = cost;
+			if (keepPreviousCities)
+				returnPreviousCities[size][rank] = (byte) previousCity;
+			return;
+		}
+
+		if (costs[size] == null)
+			allocateLayer(size);
+
+		int index = index(subset, city);
+		costs[size][index] = cost;
+		if (keepPreviousCities)
+			previousCities.set(size, index, previousCity);
+	}
+
+	/**
+	 * Every state has its own slot, and the previous cities that share a word
+	 * are set with compare and swap
+	 *
+	 * @return boolean Always true
+	 */
+	@Override
+	public boolean allowsConcurrentPuts() {
+		return true;
+	}
+
+	/**
+	 * Allocates the arrays for a layer, with every cost set to infinity
+	 * until it is stored. In a rolling table, this frees every cost layer
+	 * more than one below it
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 */
+	@Override
+	public void allocateLayer(int subsetSize) {
+		int states = (int) layerSize(subsetSize);
+
+		/* layer k is computed from layer k - 1 only, so layer k - 2 is no longer needed */
+		if (rolling) {
+			for (int size = releasedLayers + 1; size <= subsetSize - 2; size++)
+				costs[size] = null;
+
+			releasedLayers = Math.max(releasedLayers, subsetSize - 2);
+		}
+
+		costs[subsetSize] = new double[states];
+		if (keepPreviousCities)
+			previousCities.allocateLayer(subsetSize);
+		Arrays.fill(costs[subsetSize], Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Allocates the arrays for the states that return to the first
+	 * city from subsets of the given size
+	 *
+	 * @param subsetSize Size of the subsets
+	 */
+	void allocateReturnLayer(int subsetSize) {
+		int subsets = (int) subsetSpace.count(subsetSize);
+
+		returnCosts[subsetSize] = new double[subsets];
+		if (keepPreviousCities)
+			returnPreviousCities[subsetSize] = new byte[subsets];
+		Arrays.fill(returnCosts[subsetSize], Double.POSITIVE_INFINITY);
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * EdgeElimination.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * EdgeElimination class, finds edges that cannot be in any tour that is no longer than
+ * a known tour, so that Held-Karp never has to try them. After the 1-tree penalties have
+ * been optimised, the cheapest 1-tree that is forced to contain an edge (i, j) is:
+ *  - for cities i, j other than 0: the bound, plus the reduced cost of (i, j), minus
+ *    the most expensive edge on the tree path between i and j (which it replaces),
+ *  - for an edge (0, j): the bound, plus the reduced cost of (0, j), minus the more
+ *    expensive of the two edges the tree has at city 0.
+ * Every tour containing the edge is such a 1-tree, so if that bound is more than the
+ * known tour, the edge is eliminated in both directions. The optimal tour only uses
+ * edges that are kept, so the result of Held-Karp is unchanged.
+ */
+public class EdgeElimination {
+
+	static final double TOLERANCE = 1e-9; /* relative slack, so rounding never eliminates an edge of the optimal tour */
+
+	/**
+	 * Finds the edges that could be in a tour no longer than the upper bound
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param upperBound Cost of a known tour
+	 * @return long[] For each city, a bitmask of the cities it may be joined to
+	 */
+	public static long[] neighbourMasks(double[][] distanceMatrix, double upperBound) {
+		int numberOfCities = distanceMatrix.length;
+		long[] masks = new long[numberOfCities];
+
+		/* too few cities for a 1-tree, so every edge is kept */
+		if (numberOfCities < 3) {
+			for (int city = 0; city < numberOfCities; city++)
+				masks[city] = ((1L << numberOfCities) - 1) & ~(1L << city);
+			return masks;
+		}
+
+		OneTree oneTree = new OneTree(distanceMatrix);
+		double bound = oneTree.optimise(upperBound);
+		double[][] largestPathEdges = oneTree.largestPathEdges();
+		double limit = upperBound + Math.abs(upperBound) * TOLERANCE;
+
+		double largerSpecialEdge = Math.max(oneTree.reducedCost(0, oneTree.specialEdges[0]),
+				oneTree.reducedCost(0, oneTree.specialEdges[1]));
+
+		for (int fromCity = 0; fromCity < numberOfCities; fromCity++) {
+			for (int toCity = fromCity + 1; toCity < numberOfCities; toCity++) {
+
+				double replacedEdge = fromCity == 0 ? largerSpecialEdge : largestPathEdges[fromCity][toCity];
+				double forcedBound = bound + oneTree.reducedCost(fromCity, toCity) - replacedEdge;
+
+				if (forcedBound <= limit) {
+					masks[fromCity] |= 1L << toCity;
+					masks[toCity] |= 1L << fromCity;
+				}
+			}
+		}
+		return masks;
+	}
+
+	/**
+	 * Counts the edges that have been kept, each counted once
+	 *
+	 * @param masks Bitmasks from neighbourMasks()
+	 * @return int Number of edges kept
+	 */
+	public static int edgesKept(long[] masks) {
+		int edges = 0;
+
+		for (long mask : masks)
+			edges += Long.bitCount(mask);
+
+		return edges / 2;
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * FilledTable.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * FilledTable class, read-only access to every state of a Held-Karp table that has
+ * been filled in, for the classes that answer questions from it (TableQueries and
+ * KBestTours) rather than solve. It is either the table of a solver whose solve has
+ * finished (see of()), or a TableFile read back from disk. It is a CostTable so that
+ * it is read the same way as the solvers' tables, but put() throws, so a table read
+ * from a file can never be solved again by mistake.
+ */
+public abstract class FilledTable implements CostTable {
+
+	double[][] distanceMatrix;
+	SubsetSpace subsetSpace; /* every subset of the cities 1 to n - 1 */
+
+	/**
+	 * FilledTable constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities the table was solved for
+	 */
+	FilledTable(double[][] distanceMatrix) {
+		this.distanceMatrix = distanceMatrix;
+		this.subsetSpace = new SubsetSpace(Math.max(distanceMatrix.length - 1, 0), 1);
+	}
+
+	/**
+	 * Gets the states of a solver whose solve has finished
+	 *
+	 * @param heldKarp Solver whose table holds every state (see TableQueries.holdsEveryState())
+	 * @return FilledTable Read-only view of the solver's table
+	 */
+	public static FilledTable of(HeldKarp heldKarp) {
+		if (!TableQueries.holdsEveryState(heldKarp))
+			throw new IllegalArgumentException("The table must hold every state: use a table without rolling "
+					+ "layers, and no meet-in-the-middle, eliminated edges or hull order");
+
+		CostTable costTable = heldKarp.costTable;
+
+		return new FilledTable(heldKarp.distanceMatrix) {
+			@Override
+			public double cost(long subset, int city) {
+				return costTable.cost(subset, city);
+			}
+
+			@Override
+			public int previousCity(long subset, int city) {
+				return costTable.previousCity(subset, city);
+			}
+		};
+	}
+
+	/**
+	 * Always throws, as every state of the table has already been filled in
+	 *
+	 * @throws UnsupportedOperationException Always
+	 */
+	@Override
+	public final void put(long subset, int city, double cost, int previousCity) {
+		throw new UnsupportedOperationException("A filled table is read-only");
+	}
+
+	/**
+	 * Follows the previous cities back from a state to city 0 (see HeldKarp.backtrack())
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @return int[] The cities of the state, from the last one back to the first
+	 */
+	public int[] backtrack(long subset, int city) {
+		return HeldKarp.backtrack(this, subset, city);
+	}
+}
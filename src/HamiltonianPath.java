@@ -0,0 +1,49 @@
+/**
+ * HamiltonianPath.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * HamiltonianPath holds a path that starts at the first city (0) and visits a set of
+ * cities once each, ending at its last city without going back to 0, along with its
+ * cost. Unlike a Tour, it is not a circuit, so it is kept apart from the solvers' results.
+ */
+public class HamiltonianPath {
+
+	int[] path; /* cities in the order they are visited, starting with 0 */
+	double cost;
+
+	/**
+	 * HamiltonianPath constructor
+	 *
+	 * @param path Cities in the order they are visited, starting with 0
+	 * @param cost Cost of the path
+	 */
+	public HamiltonianPath(int[] path, double cost) {
+		this.path = path;
+		this.cost = cost;
+	}
+
+	/**
+	 * Gets the city the path ends at
+	 *
+	 * @return int Last city of the path
+	 */
+	public int end() {
+		return path[path.length - 1];
+	}
+
+	/**
+	 * toString override, prints the path and its cost
+	 */
+	@Override
+	public String toString() {
+		StringBuilder output = new StringBuilder("Path = ");
+
+		for (int pos = 0; pos < path.length; pos++)
+			output.append(pos == 0 ? "" : " -> ").append(path[pos]);
+
+		return output.append("\nCost = ").append(cost).toString();
+	}
+}
@@ -1,12 +1,11 @@
-
-import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
 
 /**
  * HeldKarp.java
  * 
  * @author Samuel C. Donovan 
  * Created: 20/10/2021 
- * Updated: 10/11/2021 
+ * Updated: 17/10/2026 
  * 
  * HeldKarp class, contains all necessary methods for this implementation of the
  * Held-Karp algorithm. This implementation is based on the pseudocode
@@ -14,28 +13,61 @@ import java.util.ArrayList;
  */
 public class HeldKarp {
 
-	HashTable hashTable;
+	CostTable costTable;
+	TransitionKernel kernel; /* only used when the states are in a DenseTable or OffHeapTable */
 	double[][] distanceMatrix;
-	ArrayList<Integer> set = new ArrayList<>();
+	SubsetSpace subsetSpace; /* every subset of the cities 1 to n - 1 */
+	boolean meetInTheMiddle; /* if true, symmetric inputs are solved from both ends of the tour */
+	long[] neighbourMasks; /* cities each city may be joined to, or null for every city */
+	ConvexHullOrder convexHullOrder; /* if set, states that visit the hull out of order are skipped */
+	volatile boolean cancelled; /* set from another thread to stop the solve */
+	Checkpoints checkpoints; /* if set, every layer is saved as soon as it is complete */
 
+	/**
+	 * HeldKarp constructor, stores the states in a StateTable
+	 * sized for the exact number of states
+	 * 
+	 * @param distanceMatrix Distances between every pair of cities
+	 */
 	public HeldKarp(double[][] distanceMatrix) {
+		this(distanceMatrix, new StateTable(expectedStates(distanceMatrix.length)));
+	}
+
+	/**
+	 * HeldKarp constructor
+	 * 
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param costTable Table to store the states in
+	 */
+	public HeldKarp(double[][] distanceMatrix, CostTable costTable) {
 		this.distanceMatrix = distanceMatrix;
 
-		/* if the number of cities is less than 15, the hash table size
-		   is 1 bitshift by the number of cities, and then squared.
-		   if the number of cities is more than 15, to avoid resizing,
-		   the size is set to Integer.MAX - 2 billion. Whilst this is not 
-		   a robust method for solving the issue of resizing, for the purposes
-		   of this implementation, it ensures that for N > 15, the algorithm runs
-		   in a relatively fast amount of time */
-		int hashTableSize = distanceMatrix.length < 15 ? (1 << distanceMatrix.length) * (1 << distanceMatrix.length)
-				: Integer.MAX_VALUE - 2000000000;
-
-		this.hashTable = new HashTable(hashTableSize);
-
-		/* add all of the cities into the set */
-		for (int city = 1; city < distanceMatrix.length; city++)
-			set.add(city);
+		/* states are keyed by a bitmask of their cities, so at most 32 cities can be solved */
+		if (distanceMatrix.length > StateTable.MAX_CITIES)
+			throw new IllegalArgumentException("Held-Karp supports at most " + StateTable.MAX_CITIES + " cities");
+
+		this.costTable = costTable;
+		this.kernel = newKernel();
+
+		/* subsets are made from all of the cities apart from the first city */
+		this.subsetSpace = new SubsetSpace(distanceMatrix.length - 1, 1);
+	}
+
+	/**
+	 * Gets the number of states Held-Karp stores for the given number of cities.
+	 * Every subset of the n - 1 other cities is stored once for each city in it,
+	 * which is (n - 1) * 2^(n - 2) states, plus the final state that returns to
+	 * the first city
+	 * 
+	 * @param numberOfCities Total number of cities
+	 * @return int Number of states, capped at the largest int
+	 */
+	public static int expectedStates(int numberOfCities) {
+		if (numberOfCities > StateTable.MAX_CITIES)
+			throw new IllegalArgumentException("Held-Karp supports at most " + StateTable.MAX_CITIES + " cities");
+
+		int cities = Math.max(numberOfCities - 1, 1);
+		return (int) Math.min(Integer.MAX_VALUE - 1, (long) cities << (cities - 1)) + 1;
 	}
 
 	/**
@@ -44,251 +76,393 @@ public class HeldKarp {
 	 * of this algorithm is O(n^2 * 2n), so becomes impractical after about 20 cities.
 	 * This implementation is a bottom-up approach, the smaller tasks are computed first and used
 	 * to save time when computing the larger tasks later.
+	 * 
+	 * @return Tour The shortest path and its cost, which are also printed
 	 */
-	public void solveTSP() {
+	public Tour solveTSP() {
 
-		ArrayList<ArrayList<Integer>> subsets;
 		int firstCity = 0;
 
-		/* put all of the sets with 1 city in them into the hash table. 
-		   Their costs are the cost from 0 to that city, and previous city is 0 */
-		for (int city = 1; city < distanceMatrix.length; city++) {
+		/* a symmetric tour can be split into two paths out of the first city, so only
+		   half of the layers are needed. Asymmetric inputs always run every layer */
+		if (meetInTheMiddle && distanceMatrix.length >= 4 && isSymmetric(distanceMatrix))
+			return solveMeetInTheMiddle();
+
+		solveLayers(distanceMatrix.length - 1);
+
+		/* after all subsets and combinations have been put into the cost table,
+		   the path is closed by returning to the first city from the full set, and
+		   backtracking is used to retrieve the shortest path and the best cost */
+		long fullSet = subsetSpace.all();
 
-			int[] currentSet = { city }; /* make a subset containing the current city */
+		double bestCost = findMinimumCostSet(firstCity, fullSet);
 
-			hashTable.put(new Node(currentSet, distanceMatrix[firstCity][city], firstCity));
+		Tour tour = new Tour(findBestPath(fullSet), bestCost);
+		System.out.println(tour);
+		return tour;
+	}
+
+	/**
+	 * Sets whether symmetric inputs are solved by joining two half-tours, see
+	 * solveMeetInTheMiddle(). Asymmetric inputs are always solved in full
+	 * 
+	 * @param meetInTheMiddle True to join half-tours when the input is symmetric
+	 */
+	public void setMeetInTheMiddle(boolean meetInTheMiddle) {
+		this.meetInTheMiddle = meetInTheMiddle;
+	}
+
+	/**
+	 * Checks whether the distance from every city to every other city is the
+	 * same in both directions
+	 * 
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @return boolean True if the matrix is symmetric
+	 */
+	public static boolean isSymmetric(double[][] distanceMatrix) {
+		for (int fromCity = 0; fromCity < distanceMatrix.length; fromCity++) {
+			for (int toCity = fromCity + 1; toCity < distanceMatrix.length; toCity++) {
+				if (distanceMatrix[fromCity][toCity] != distanceMatrix[toCity][fromCity])
+					return false;
+			}
 		}
+		return true;
+	}
 
-		/* this is the main loop of the algorithm, it directly follows the pseudocode.
-		   it starts from subsetSize 2, as all subsets of size 1 were previously inserted
-		   into the hash table */
-		for (int subsetSize = 2; subsetSize < distanceMatrix.length; subsetSize++) {
+	/**
+	 * Finds the shortest tour of a symmetric input from the middle layers only. In
+	 * a symmetric tour, the city j that is visited after n / 2 cities splits it into a
+	 * path from 0 through a set S ending at j, and (reading the rest of the tour
+	 * backwards) a path from 0 through every other city ending at j. Both are states
+	 * of a layer of size n / 2 or n - n / 2, so the layers above those are never computed
+	 * 
+	 * @return Tour The shortest path and its cost, which are also printed
+	 */
+	public Tour solveMeetInTheMiddle() {
+
+		int numberOfCities = distanceMatrix.length;
+		int firstHalf = numberOfCities / 2;
+
+		/* a rolling table still holds both layers, as they are the two newest */
+		solveLayers(numberOfCities - firstHalf);
 
-			subsets = getSubsetsOfSize(subsetSize);
+		long allCities = subsetSpace.all();
+		double bestCost = Double.POSITIVE_INFINITY;
+		long bestSubset = 0;
+		int bestCity = 0;
 
-			/* it then loops through all subsets of size subsetSize */
-			for (ArrayList<Integer> subset : subsets) {
+		long subset = subsetSpace.first(firstHalf);
+		for (long rank = subsetSpace.count(firstHalf); rank > 0; rank--, subset = subsetSpace.next(subset)) {
 
-				/* for each city in the subset, find the minimum cost combination/subset
-				   for that city, and put it into the hash table. the first iterations of thse nested loops will 
-				   be the most costly, calculating the minimum for a large number of combinations, but 
-				   these calculations are used for subsequent subsets to drastically save time */
-				for (int city : subset) {
+			long complement = allCities & ~subset;
 
-					hashTable.put(findMinimumCostSet(city, subset));
+			for (long remaining = subset; remaining != 0; remaining &= remaining - 1) {
+				int city = Long.numberOfTrailingZeros(remaining);
+				double cost = costTable.cost(subset, city) + costTable.cost(complement | (1L << city), city);
+
+				if (cost < bestCost) {
+					bestCost = cost;
+					bestSubset = subset;
+					bestCity = city;
 				}
 			}
 		}
-		/* after all subsets and combinations have been put into the hash table,
-		   the first city is added back to the main set and backtracking is used to 
-		   retrieve the shortest path and the best cost */
-		set.add(0, firstCity);
 
-		Node bestNode = findMinimumCostSet(0, set);
-		int[] bestSubset = bestNode.subset;
-		double bestCost = bestNode.cost;
+		/* the first half is backtracked from j to the first city, so it is reversed.
+		   the second half already runs from j back towards the first city */
+		int[] firstPath = backtrack(bestSubset, bestCity);
+		int[] secondPath = backtrack((allCities & ~bestSubset) | (1L << bestCity), bestCity);
+
+		int[] path = new int[numberOfCities + 1];
+		for (int pos = 0; pos < firstPath.length; pos++)
+			path[pos + 1] = firstPath[firstPath.length - 1 - pos];
+		System.arraycopy(secondPath, 1, path, firstPath.length + 1, secondPath.length - 1);
 
-		findBestPath(bestSubset);
-		System.out.println("Cost = " + bestCost);
+		Tour tour = new Tour(path, bestCost);
+		System.out.println(tour);
+		return tour;
 	}
 
 	/**
-	 * Calling function of the recursive subset function, passes the 
-	 * subset size to that recursive function  
+	 * Computes every layer of states up to the given subset size
 	 * 
-	 * @param subsetSize The required size of the subsets
-	 * @return ArrayList containing all of the subsets
+	 * @param largestSubset Size of the subsets in the last layer to compute
 	 */
-	public ArrayList<ArrayList<Integer>> getSubsetsOfSize(int subsetSize) {
-		ArrayList<ArrayList<Integer>> subsets = new ArrayList<>();
-		getSubsetsRecursive(0, subsetSize, subsets, new ArrayList<>());
-		return subsets;
+	public void solveLayers(int largestSubset) {
+
+		int firstCity = 0;
+		boolean checkpointed = checkpoints != null && largestSubset >= 1;
+
+		/* a resumed solve carries on from the last layer that was saved */
+		int resumedLayers = checkpointed ? checkpoints.resume(this, largestSubset) : 0;
+
+		/* put all of the sets with 1 city in them into the cost table. 
+		   Their costs are the cost from 0 to that city, and previous city is 0 */
+		if (resumedLayers == 0) {
+			for (int city = 1; city < distanceMatrix.length; city++)
+				costTable.put(1L << city, city, isEdgeKept(firstCity, city) && isAllowedEnd(1L << city, city)
+						? distanceMatrix[firstCity][city] : Double.POSITIVE_INFINITY, firstCity);
+
+			if (checkpointed)
+				checkpoints.layerSolved(this, 1);
+		}
+
+		/* this is the main loop of the algorithm, it directly follows the pseudocode.
+		   it starts from subsetSize 2, as all subsets of size 1 were previously inserted
+		   into the cost table. Every layer only depends on the layer before it */
+		for (int subsetSize = Math.max(2, resumedLayers + 1); subsetSize <= largestSubset; subsetSize++) {
+
+			/* layered tables allocate the layer up front, as the kernel writes straight into it */
+			costTable.allocateLayer(subsetSize);
+
+			solveLayer(subsetSize);
+
+			/* the layer is saved while the next one is computed */
+			if (checkpointed)
+				checkpoints.layerSolved(this, subsetSize);
+		}
+
+		if (checkpointed)
+			checkpoints.await();
 	}
 
 	/**
-	 * Recursive function for finding all subsets of a given size. 
-	 * Called in the getSubsetsOfSize() function.
+	 * Computes every state of one layer, i.e. the minimum cost of every subset
+	 * of the given size for every city in that subset. All layers of smaller
+	 * subsets must already be in the cost table
 	 * 
-	 * @param nextPos Next position in the set; increases by one during every recursive call
-	 * @param subsetSize Current subset size, used to ensure all subsets are of the input size
-	 * @param subsets List containing all created subsets
-	 * @param currentSubset The current subset that is being created
+	 * @param subsetSize Size of the subsets in the layer
 	 */
-	public void getSubsetsRecursive(int nextPos, int subsetSize, ArrayList<ArrayList<Integer>> subsets,
-			ArrayList<Integer> currentSubset) {
-
-		/* if the current subsets' size is equal to the specified size, 
-		   the subset is complete and can be added to the list of subsets */
-		if (currentSubset.size() == subsetSize) {
-			subsets.add(new ArrayList<>(currentSubset));
-			return; // break out of this instance of the recursive call
+	public void solveLayer(int subsetSize) {
+
+		/* loop through all subsets of size subsetSize. They are generated one at a
+		   time in colex order, so no layer of subsets is ever held in memory */
+		long subset = subsetSpace.first(subsetSize);
+
+		for (long rank = subsetSpace.count(subsetSize); rank > 0; rank--) {
+			solveSubset(subset, kernel);
+			subset = subsetSpace.next(subset);
 		}
+	}
 
-		/* for each index, this loop adds the current city into the current subset,
-		   and then calls this method on the next city. Once that instance of the recursive 
-		   call has reached the specified subset size, it finishes and this loop moves 
-		   back onto the original recursive call, repeating until all subsets have been added */
-		for (int currentPos = nextPos; currentPos < set.size(); currentPos++) {
+	/**
+	 * Computes every state of one subset, i.e. finds the minimum cost combination/subset
+	 * for each city in the subset and puts it into the cost table. The first iterations of
+	 * this will be the most costly, calculating the minimum for a large number of combinations,
+	 * but these calculations are used for subsequent subsets to drastically save time
+	 * 
+	 * @param subset Bitmask of the cities in the subset
+	 * @param kernel Kernel to compute the states with, or null to use findMinimumCostSet()
+	 */
+	public void solveSubset(long subset, TransitionKernel kernel) {
 
-			currentSubset.add(set.get(currentPos));
+		if (cancelled)
+			throw new CancellationException("Held-Karp was cancelled");
 
-			/* add one to currentPos to get the next city */
-			getSubsetsRecursive(currentPos + 1, subsetSize, subsets, currentSubset);
+		/* states ruled out by the hull order are left at an infinite cost */
+		long ends = convexHullOrder == null ? subset : convexHullOrder.allowedEnds(subset);
 
-			/* remove the last city in the current subset to ensure that all subsets are the 
-			   correct size, and to move onto the next city after all of the subsets that have
-			   the current city as their first element have been created */
-			currentSubset.remove(currentSubset.size() - 1);
+		if (kernel != null) {
+			kernel.solveSubset(subset, ends);
+			return;
 		}
+
+		for (long remaining = ends; remaining != 0; remaining &= remaining - 1)
+			findMinimumCostSet(Long.numberOfTrailingZeros(remaining), subset);
 	}
 
 	/**
-	 * Creates all of the "combinations" of a given array. These combinations
-	 * are created by getting an element from the array and setting it as the
-	 * first element in the combination, then adding the rest of the elements to
-	 * the combination (e.g. a combination for {1, 2, 4, 5} could be {4, 1, 2, 5}). 
-	 * Aside from the first position, order does not matter.
+	 * Stops a solve that is running on another thread, which then throws a
+	 * CancellationException. The states computed so far are left in the cost table
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Saves every layer to a directory as soon as it is complete, and carries on from
+	 * the last layer saved there if there is one (see Checkpoints). The states must be
+	 * kept in a DenseTable with rolling layers
 	 * 
-	 * @param array int array to get combinations for
-	 * @return int[][] all combinations for the given array.
+	 * @param checkpoints Directory of checkpoints, or null to stop saving layers
 	 */
-	public static int[][] combinations(int[] array) {
-		int[][] combinations = new int[array.length][array.length];
+	public void setCheckpoints(Checkpoints checkpoints) {
+		if (checkpoints != null)
+			Checkpoints.checkTable(costTable);
 
-		int currentPos = 0;
-		for (int row = 0; row < array.length; row++) {
-			currentPos = 0;
+		this.checkpoints = checkpoints;
+	}
 
-			/* set the first city of the current combination */
-			combinations[row][currentPos] = array[row];
+	/**
+	 * Skips every state whose path visits the corners of the convex hull out of order
+	 * (see ConvexHullOrder). This is exact only when the distance matrix holds the
+	 * straight line distances between the coordinates the hull was found from
+	 * 
+	 * @param convexHullOrder Hull of the cities' coordinates, or null to stop skipping states
+	 */
+	public void setConvexHullOrder(ConvexHullOrder convexHullOrder) {
+		if (convexHullOrder != null && !isSymmetric(distanceMatrix))
+			throw new IllegalArgumentException("The hull order only applies to Euclidean distances");
 
-			for (int column = 0; column < array.length; column++) {
-				/* if the current column is the same as the current row, 
-				   continue to the next city */
-				if (row == column)
-					continue;
+		this.convexHullOrder = convexHullOrder;
+	}
 
-				/* add the rest of the cities to the current combination */
-				combinations[row][++currentPos] = array[column];
-			}
-		}
-		return combinations;
+	/**
+	 * Checks whether a path through a subset may end at a city
+	 * 
+	 * @param subset Bitmask of the cities in the subset
+	 * @param city The city the path ends at
+	 * @return boolean True if no hull order has been set, or the state follows it
+	 */
+	boolean isAllowedEnd(long subset, int city) {
+		return convexHullOrder == null || (convexHullOrder.allowedEnds(subset) & (1L << city)) != 0;
 	}
 
 	/**
-	 * Finds the minimum cost of all combinations of a given subset, that lead to
-	 * the specified city
+	 * Creates a kernel that computes whole subsets at once without allocating
+	 * anything. Kernels work directly on the layers of a DenseTable or OffHeapTable,
+	 * so other tables get null and use findMinimumCostSet() instead
+	 * 
+	 * @return TransitionKernel New kernel, or null if the states are not stored in layers
+	 */
+	public TransitionKernel newKernel() {
+		TransitionKernel kernel = null;
+
+		if (costTable instanceof DenseTable)
+			kernel = new TransitionKernel(distanceMatrix, (DenseTable) costTable);
+		else if (costTable instanceof OffHeapTable)
+			kernel = new TransitionKernel(distanceMatrix, (OffHeapTable) costTable);
+
+		if (kernel != null)
+			kernel.neighbourMasks = neighbourMasks;
+
+		return kernel;
+	}
+
+	/**
+	 * Limits the edges Held-Karp tries to the ones given, e.g. the edges kept by
+	 * EdgeElimination. Each city's previous city is then only chosen from the cities it
+	 * may be joined to, so the inner loops only run over those. The optimal tour must
+	 * only use edges that are kept
+	 * 
+	 * @param neighbourMasks For each city, a bitmask of the cities it may be joined to
+	 */
+	public void restrictEdges(long[] neighbourMasks) {
+		this.neighbourMasks = neighbourMasks;
+		this.kernel = newKernel();
+	}
+
+	/**
+	 * Checks whether an edge may be used
+	 * 
+	 * @param fromCity One end of the edge
+	 * @param toCity Other end of the edge
+	 * @return boolean True if the edges have not been restricted, or the edge was kept
+	 */
+	boolean isEdgeKept(int fromCity, int toCity) {
+		return neighbourMasks == null || (neighbourMasks[toCity] & (1L << fromCity)) != 0;
+	}
+
+	/**
+	 * Finds the minimum cost path through a given subset that ends at the specified
+	 * city, and puts it into the cost table. Every other city in the subset is tried
+	 * as the previous city, using the cost of the subset without the destination city
+	 * that ends at that previous city.
 	 * 
 	 * @param city The destination city
-	 * @param subset Subset to search through
-	 * @return Node containing the subset, cost and previous city of the minimum subset
+	 * @param subset Bitmask of the subset to search through, bit i is city i
+	 * @return double The minimum cost, which is also stored in the cost table
 	 */
-	public Node findMinimumCostSet(int city, ArrayList<Integer> subset) {
+	public double findMinimumCostSet(int city, long subset) {
 
-		Node hashNode;
 		double cost = Double.POSITIVE_INFINITY, combinationCost;
-		int previousCity = 0, firstCity = 0;
-
-		ArrayList<Integer> tempSet = new ArrayList<Integer>(subset);
+		int previousCity = 0;
 
-		/* remove destination city from subset and convert it to a primitive array.
-		   this is the array that will be used to generate different combinations */
-		tempSet.remove(Integer.valueOf(city));
-		int[] setMinusCity = listToArray(tempSet);
+		/* remove destination city from subset, the remaining cities are the
+		   possible previous cities */
+		long setMinusCity = subset & ~(1L << city);
 
-		/* set the first position to the destination city, then convert it to a primitive array.
-		   this is the subset that will be put into the hash table */
-		tempSet.add(0, city);
-		int[] currentSet = listToArray(tempSet);
+		/* only cities joined to the destination by a kept edge can come before it */
+		long previousCities = neighbourMasks == null ? setMinusCity : setMinusCity & neighbourMasks[city];
 
-		/* for all combinations of the subset without the current city in, 
-		   find the combination with the lowest cost */
-		int[][] combinations = combinations(setMinusCity);
-		
-		for (int[] combination : combinations) {
+		/* for every city left in the subset, find the previous city with the lowest cost.
+		   the lowest set bit is removed each iteration to move to the next city */
+		for (long remaining = previousCities; remaining != 0; remaining &= remaining - 1) {
 
-			hashNode = hashTable.search(combination);
+			int fromCity = Long.numberOfTrailingZeros(remaining);
 
-			/* combination cost is equal to the cost of the subset in the hash table
-			   plus the cost from the destination city in that subset to the destination city 
-			   of the current set */
-			combinationCost = hashNode.cost + distanceMatrix[hashNode.subset[0]][city];
+			/* combination cost is equal to the cost of the subset ending at fromCity
+			   plus the cost from fromCity to the destination city */
+			combinationCost = costTable.cost(setMinusCity, fromCity) + distanceMatrix[fromCity][city];
 
 			if (combinationCost < cost) {
 				cost = combinationCost;
-				previousCity = hashNode.subset[0];
-
-				/* if the destination city is the first city in the path, 
-				   current set is equal to this combination. This means that
-				   the current set would be the best subset, and would have the 
-				   optimum cost */
-				if (city == firstCity)
-					currentSet = combination;
+				previousCity = fromCity;
 			}
 		}
-		return new Node(currentSet, cost, previousCity);
 
+		costTable.put(subset, city, cost, previousCity);
+		return cost;
 	}
 
 	/**
-	 * Prints the best path using the final subset, and backtracks through the
-	 * previous cities to form the shortest path.
+	 * Finds the best path by backtracking through the previous cities of the
+	 * final state, removing each city from the set as it is visited.
 	 * 
 	 * @param finalSubset The final subset retrieved from the algorithm. This subset
 	 * will contain all cities aside from the first city (0 in this case)
+	 * @return int[] The best path, starting and ending at 0
 	 */
-	public void findBestPath(int[] finalSubset) {
-		int[] previousSubset;
-		int[] currentSubset = finalSubset;
-		int currentCity;
-
-		/* print the path, starting from 0 (the paths always start from 0 in
-		   this implementation), and then print the first city from the final subset */
-		System.out.print("Path = 0 -> " + finalSubset[0] + " -> ");
-
-		/* these loops handle the backtracking of Held-Karp; they search
-		   the hash table for the current subset, retrieve its previous
-		   city, remove that city from the current subset and repeat until 
-		   the subset is empty */
-		for (int size = finalSubset.length - 1; size > 0; size--) {
-
-			/* find the current path and print its previous city to 
-			   form part of the shortest path  */
-			currentCity = hashTable.search(currentSubset).previousCity;
-			System.out.print(currentCity + " -> ");
-
-			previousSubset = currentSubset;
-
-			currentSubset = new int[size]; // set currentSubset to an empty
-											// array of the current size
-			currentSubset[0] = currentCity;
-
-			for (int index1 = 1, index2 = index1; index1 < currentSubset.length; index1++, index2++) {
-
-				/* fill current subset with cities from previous subset, minus the current city */
-				if (previousSubset[index2] == currentCity) {
-					index1--;
-					continue;
-				}
-				currentSubset[index1] = previousSubset[index2];
-			}
-		}
-		System.out.print("0"); /* print 0 again to form a complete circuit in the path */
-		System.out.println();
+	public int[] findBestPath(long finalSubset) {
+		int[] path = new int[Long.bitCount(finalSubset) + 2];
+
+		/* the final state ends back at the first city, its previous city
+		   is the last city visited before returning to 0 */
+		int[] cities = backtrack(finalSubset, costTable.previousCity(finalSubset, 0));
+
+		/* the path starts from 0 (the paths always start from 0 in this implementation),
+		   and 0 is added again at the end to form a complete circuit. Backtracking finds
+		   the cities last to first, so they are reversed into the order they are visited */
+		for (int pos = 0; pos < cities.length; pos++)
+			path[pos + 1] = cities[cities.length - 1 - pos];
+		return path;
 	}
 
 	/**
-	 * Helper function that converts an ArrayList to a primitive int array
+	 * Backtracks from a state to the first city. This handles the backtracking of
+	 * Held-Karp; it searches the cost table for the current state, retrieves its
+	 * previous city, removes the current city from the subset and repeats until
+	 * the subset is empty
 	 * 
-	 * @param listToConvert ArrayList to be converted
-	 * @return int[] Converted int array
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @return int[] The cities of the state's path, from the end city back to the
+	 * city that was visited straight after 0
 	 */
-	public int[] listToArray(ArrayList<Integer> listToConvert) {
-		int[] convertedArray = new int[listToConvert.size()];
+	public int[] backtrack(long subset, int city) {
+		return backtrack(costTable, subset, city);
+	}
+
+	/**
+	 * Backtracks from a state to the first city through the previous cities of any
+	 * table, e.g. a FilledTable that was read back from a file
+	 * 
+	 * @param costTable Table holding the previous city of every state on the path
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @return int[] The cities of the state's path, from the end city back to the
+	 * city that was visited straight after 0
+	 */
+	public static int[] backtrack(CostTable costTable, long subset, int city) {
+		int[] cities = new int[Long.bitCount(subset)];
 
-		for (int pos = 0; pos < listToConvert.size(); pos++)
-			convertedArray[pos] = listToConvert.get(pos);
+		for (int pos = 0; pos < cities.length; pos++) {
+			cities[pos] = city;
 
-		return convertedArray;
+			int previousCity = costTable.previousCity(subset, city);
+			subset &= ~(1L << city);
+			city = previousCity;
+		}
+		return cities;
 	}
 }
@@ -0,0 +1,168 @@
+import java.util.Random;
+
+/**
+ * Heuristics.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Heuristics class, quickly finds good (but not necessarily optimal) tours. They are
+ * used as upper bounds by the exact solvers: any state that cannot beat a known tour
+ * can be skipped. Every method works on asymmetric inputs as well as symmetric ones.
+ */
+public class Heuristics {
+
+	static final double TOLERANCE = 1e-9; /* relative improvement a symmetric 2-opt move must make */
+
+	/**
+	 * Builds a tour by always moving to the nearest city that has not been visited
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @return Tour The nearest neighbour tour, starting and ending at 0
+	 */
+	public static Tour nearestNeighbour(double[][] distanceMatrix) {
+		int numberOfCities = distanceMatrix.length;
+		int[] path = new int[numberOfCities + 1];
+		boolean[] visited = new boolean[numberOfCities];
+		visited[0] = true;
+
+		for (int pos = 1; pos < numberOfCities; pos++) {
+			int fromCity = path[pos - 1], nearestCity = -1;
+
+			for (int toCity = 0; toCity < numberOfCities; toCity++) {
+				if (!visited[toCity] && (nearestCity < 0
+						|| distanceMatrix[fromCity][toCity] < distanceMatrix[fromCity][nearestCity]))
+					nearestCity = toCity;
+			}
+
+			path[pos] = nearestCity;
+			visited[nearestCity] = true;
+		}
+		return new Tour(path, Tour.cost(path, distanceMatrix));
+	}
+
+	/**
+	 * Builds a tour by inserting the cities in a random order, each one where it adds
+	 * the least to the path. Different orders give different tours, so it can be run
+	 * many times to search for a better tour than nearest neighbour finds
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param random Source of the order the cities are inserted in
+	 * @return Tour The random insertion tour, starting and ending at 0
+	 */
+	public static Tour randomInsertion(double[][] distanceMatrix, Random random) {
+		int numberOfCities = distanceMatrix.length;
+		int[] order = new int[numberOfCities - 1];
+
+		/* shuffle the cities 1 to n - 1 */
+		for (int pos = 0; pos < order.length; pos++) {
+			int swap = random.nextInt(pos + 1);
+			order[pos] = order[swap];
+			order[swap] = pos + 1;
+		}
+
+		int[] path = new int[numberOfCities + 1];
+		int length = 2; /* the path starts as 0 -> 0 */
+
+		for (int city : order) {
+			int bestPos = 1;
+			double bestIncrease = Double.POSITIVE_INFINITY;
+
+			/* the city goes between the cities at pos - 1 and pos */
+			for (int pos = 1; pos < length; pos++) {
+				double increase = distanceMatrix[path[pos - 1]][city] + distanceMatrix[city][path[pos]]
+						- distanceMatrix[path[pos - 1]][path[pos]];
+
+				if (increase < bestIncrease) {
+					bestIncrease = increase;
+					bestPos = pos;
+				}
+			}
+
+			System.arraycopy(path, bestPos, path, bestPos + 1, length - bestPos);
+			path[bestPos] = city;
+			length++;
+		}
+		return new Tour(path, Tour.cost(path, distanceMatrix));
+	}
+
+	/**
+	 * Improves a tour with 2-opt moves (reversing a section of the path) until no
+	 * reversal makes it shorter. On a symmetric input a reversal only changes the two
+	 * edges at its ends, so each move is priced in O(1). On an asymmetric input every
+	 * edge inside the section changes direction, so the whole path is priced again
+	 *
+	 * @param tour Tour to improve, which is not changed
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @return Tour The improved tour
+	 */
+	public static Tour twoOpt(Tour tour, double[][] distanceMatrix) {
+		int[] path = tour.path.clone();
+		double cost = Tour.cost(path, distanceMatrix);
+		boolean symmetric = HeldKarp.isSymmetric(distanceMatrix);
+		boolean improved = true;
+
+		while (improved) {
+			improved = false;
+
+			/* the first and last cities are always 0, so they are never moved */
+			for (int from = 1; from < path.length - 2; from++) {
+				for (int to = from + 1; to < path.length - 1; to++) {
+
+					if (symmetric) {
+						/* the edges into and out of the section are swapped for the reversed ones */
+						double change = distanceMatrix[path[from - 1]][path[to]] + distanceMatrix[path[from]][path[to + 1]]
+								- distanceMatrix[path[from - 1]][path[from]] - distanceMatrix[path[to]][path[to + 1]];
+
+						/* rounding could otherwise undo and redo the same move forever */
+						if (change < -Math.abs(cost) * TOLERANCE) {
+							reverse(path, from, to);
+							cost += change;
+							improved = true;
+						}
+						continue;
+					}
+
+					reverse(path, from, to);
+					double newCost = Tour.cost(path, distanceMatrix);
+
+					if (newCost < cost) {
+						cost = newCost;
+						improved = true;
+					} else {
+						reverse(path, from, to);
+					}
+				}
+			}
+		}
+
+		/* the running total of the changes may have drifted from the true cost */
+		return new Tour(path, symmetric ? Tour.cost(path, distanceMatrix) : cost);
+	}
+
+	/**
+	 * Finds a good tour, to use as an upper bound
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @return Tour The nearest neighbour tour, improved by 2-opt
+	 */
+	public static Tour upperBound(double[][] distanceMatrix) {
+		return twoOpt(nearestNeighbour(distanceMatrix), distanceMatrix);
+	}
+
+	/**
+	 * Reverses the cities between two positions of a path (inclusive)
+	 *
+	 * @param path Path to change
+	 * @param from First position
+	 * @param to Last position
+	 */
+	static void reverse(int[] path, int from, int to) {
+		for (; from < to; from++, to--) {
+			int city = path[from];
+			path[from] = path[to];
+			path[to] = city;
+		}
+	}
+}
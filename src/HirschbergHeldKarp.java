@@ -0,0 +1,179 @@
+/**
+ * HirschbergHeldKarp.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * HirschbergHeldKarp class, a low memory version of Held-Karp that stores no previous
+ * cities at all. In the same way that Hirschberg's algorithm finds an alignment from
+ * two half-size passes, the optimal path from a start city through a set of cities to
+ * an end city is found by:
+ *  1. running Held-Karp forwards from the start city over the subsets of half of the
+ *     cities, and backwards from the end city over the subsets of the other half,
+ *  2. joining every half-path ending at j with the complementary half-path starting at i,
+ *     which gives the optimal split of the cities and the two cities in the middle,
+ *  3. solving each half again in the same way, until only single cities are left.
+ * Both passes only keep their two newest cost layers, so the peak memory is a few of
+ * the middle layers. The first split costs about as much as one full Held-Karp run and
+ * every later split is exponentially smaller, so the extra work is a constant factor.
+ */
+public class HirschbergHeldKarp {
+
+	double[][] distanceMatrix;
+
+	/**
+	 * HirschbergHeldKarp constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 */
+	public HirschbergHeldKarp(double[][] distanceMatrix) {
+		this.distanceMatrix = distanceMatrix;
+
+		if (distanceMatrix.length > StateTable.MAX_CITIES)
+			throw new IllegalArgumentException("Held-Karp supports at most " + StateTable.MAX_CITIES + " cities");
+	}
+
+	/**
+	 * Finds the shortest tour, starting and ending at city 0
+	 *
+	 * @return Tour The shortest path and its cost, which are also printed
+	 */
+	public Tour solveTSP() {
+		int[] cities = new int[distanceMatrix.length - 1];
+
+		for (int city = 1; city < distanceMatrix.length; city++)
+			cities[city - 1] = city;
+
+		int[] path = new int[distanceMatrix.length + 1];
+		System.arraycopy(solvePath(0, cities, 0), 0, path, 1, cities.length);
+
+		Tour tour = new Tour(path, Tour.cost(path, distanceMatrix));
+		System.out.println(tour);
+		return tour;
+	}
+
+	/**
+	 * Finds the shortest path that leaves the start city, visits every given city
+	 * once and then arrives at the end city
+	 *
+	 * @param start City the path starts at
+	 * @param cities Cities to visit, not including the start and end cities
+	 * @param end City the path ends at
+	 * @return int[] The given cities in the order they are visited
+	 */
+	public int[] solvePath(int start, int[] cities, int end) {
+		int size = cities.length;
+
+		if (size <= 1)
+			return cities.clone();
+
+		/* the forward half-paths visit half of the cities, and the backward half-paths
+		   visit the rest. Locally, the start (or end) city is city 0 and the given
+		   cities are cities 1 to size, so a set of them is a SubsetSpace bitmask */
+		int forwardSize = size / 2, backwardSize = size - forwardSize;
+
+		HeldKarp forward = new HeldKarp(localMatrix(distanceMatrix, start, cities, false),
+				new DenseTable(size + 1, true, false));
+		HeldKarp backward = new HeldKarp(localMatrix(distanceMatrix, end, cities, true),
+				new DenseTable(size + 1, true, false));
+
+		forward.solveLayers(forwardSize);
+		backward.solveLayers(backwardSize);
+
+		/* join each forward half-path ending at j to each backward half-path starting
+		   at i that visits exactly the other cities */
+		SubsetSpace subsetSpace = forward.subsetSpace;
+		long allCities = subsetSpace.all();
+		double bestCost = Double.POSITIVE_INFINITY;
+		long bestSubset = 0;
+		int bestJ = 0, bestI = 0;
+
+		long subset = subsetSpace.first(forwardSize);
+		for (long rank = subsetSpace.count(forwardSize); rank > 0; rank--, subset = subsetSpace.next(subset)) {
+
+			long complement = allCities & ~subset;
+
+			for (long js = subset; js != 0; js &= js - 1) {
+				int j = Long.numberOfTrailingZeros(js);
+				double forwardCost = forward.costTable.cost(subset, j);
+
+				for (long is = complement; is != 0; is &= is - 1) {
+					int i = Long.numberOfTrailingZeros(is);
+					double cost = forwardCost + distanceMatrix[cities[j - 1]][cities[i - 1]]
+							+ backward.costTable.cost(complement, i);
+
+					if (cost < bestCost) {
+						bestCost = cost;
+						bestSubset = subset;
+						bestJ = j;
+						bestI = i;
+					}
+				}
+			}
+		}
+
+		/* the two tables are no longer needed, so they can be freed before recursing */
+		forward = null;
+		backward = null;
+
+		int[] firstHalf = citiesOf(bestSubset & ~(1L << bestJ), cities);
+		int[] secondHalf = citiesOf(allCities & ~bestSubset & ~(1L << bestI), cities);
+		int middleFrom = cities[bestJ - 1], middleTo = cities[bestI - 1];
+
+		int[] path = new int[size];
+		int pos = 0;
+
+		for (int city : solvePath(start, firstHalf, middleFrom))
+			path[pos++] = city;
+		path[pos++] = middleFrom;
+		path[pos++] = middleTo;
+		for (int city : solvePath(middleTo, secondHalf, end))
+			path[pos++] = city;
+
+		return path;
+	}
+
+	/**
+	 * Builds the distance matrix of a sub-problem, where local city 0 is the given
+	 * city and local cities 1 to n are the given cities. Backward matrices are
+	 * transposed, so a forward path in them is a backward path in the real matrix
+	 *
+	 * @param distanceMatrix Distances between every pair of real cities
+	 * @param origin City that becomes local city 0
+	 * @param cities Cities that become local cities 1 to n
+	 * @param backward True to transpose the matrix
+	 * @return double[][] The local distance matrix
+	 */
+	static double[][] localMatrix(double[][] distanceMatrix, int origin, int[] cities, boolean backward) {
+		double[][] local = new double[cities.length + 1][cities.length + 1];
+
+		for (int from = 0; from <= cities.length; from++) {
+			for (int to = 0; to <= cities.length; to++) {
+				int fromCity = from == 0 ? origin : cities[from - 1];
+				int toCity = to == 0 ? origin : cities[to - 1];
+
+				local[from][to] = from == to ? Double.POSITIVE_INFINITY
+						: backward ? distanceMatrix[toCity][fromCity] : distanceMatrix[fromCity][toCity];
+			}
+		}
+		return local;
+	}
+
+	/**
+	 * Converts a bitmask of local cities back to the real cities
+	 *
+	 * @param subset Bitmask of local cities, bit i is local city i
+	 * @param cities Real cities, where cities[i - 1] is local city i
+	 * @return int[] The real cities in the subset
+	 */
+	static int[] citiesOf(long subset, int[] cities) {
+		int[] subsetCities = new int[Long.bitCount(subset)];
+		int pos = 0;
+
+		for (long remaining = subset; remaining != 0; remaining &= remaining - 1)
+			subsetCities[pos++] = cities[Long.numberOfTrailingZeros(remaining) - 1];
+
+		return subsetCities;
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * IncrementalHeldKarp.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * IncrementalHeldKarp class, keeps every Held-Karp state of a set of cities so that the
+ * optimal tour can be found again when a city is added, removed or moved, without
+ * solving the whole problem again. A state only depends on the cities in its subset,
+ * so when city x changes, every state whose subset does not hold x is still correct:
+ *  - removing x needs no new states at all, the tour is closed from the subset of the
+ *    cities that are left,
+ *  - adding or moving x recomputes only the states whose subset holds x, which is half
+ *    of them. They are computed in increasing order of the other cities in the subset,
+ *    so every subset of the subset is up to date before it is used.
+ *
+ * Each city keeps its number while it is in the set, and a removed city's number is
+ * given to the next city that is added (its old states are overwritten then). City 0
+ * is the start of every tour and cannot be removed, so at most 31 other cities can be
+ * in the set at once. The states are kept in a StateTable, as the subsets in use change.
+ */
+public class IncrementalHeldKarp extends HeldKarp {
+
+	long cities; /* bitmask of the cities in the set, apart from city 0 */
+	long statesComputed;
+
+	/**
+	 * IncrementalHeldKarp constructor, computes every state of the given cities
+	 *
+	 * @param distanceMatrix Distances between every pair of cities, which become cities 0 to n - 1
+	 */
+	public IncrementalHeldKarp(double[][] distanceMatrix) {
+		super(slotMatrix(distanceMatrix), new StateTable(expectedStates(distanceMatrix.length)));
+
+		/* adding the cities one at a time computes each state exactly once */
+		for (int city = 1; city < distanceMatrix.length; city++) {
+			cities |= 1L << city;
+			recompute(city);
+		}
+	}
+
+	/**
+	 * Copies a distance matrix into one with room for every city number
+	 */
+	static double[][] slotMatrix(double[][] distanceMatrix) {
+		if (distanceMatrix.length < 1 || distanceMatrix.length > StateTable.MAX_CITIES)
+			throw new IllegalArgumentException("Held-Karp supports 1 to " + StateTable.MAX_CITIES + " cities");
+
+		double[][] slots = new double[StateTable.MAX_CITIES][StateTable.MAX_CITIES];
+
+		for (int fromCity = 0; fromCity < StateTable.MAX_CITIES; fromCity++) {
+			for (int toCity = 0; toCity < StateTable.MAX_CITIES; toCity++)
+				slots[fromCity][toCity] = fromCity < distanceMatrix.length && toCity < distanceMatrix.length
+						? distanceMatrix[fromCity][toCity] : Double.POSITIVE_INFINITY;
+		}
+		return slots;
+	}
+
+	/**
+	 * Gets the number of states computed so far, by the constructor and every change
+	 *
+	 * @return long Number of states
+	 */
+	public long statesComputed() {
+		return statesComputed;
+	}
+
+	/**
+	 * Checks whether a city is in the set
+	 *
+	 * @param city Number of the city
+	 * @return boolean True if the city is in the set
+	 */
+	public boolean hasCity(int city) {
+		return city == 0 || (city > 0 && city < StateTable.MAX_CITIES && (cities & (1L << city)) != 0);
+	}
+
+	/**
+	 * Adds a city to the set and computes every state that holds it
+	 *
+	 * @param distancesFrom distancesFrom[c] = distance from the new city to city c
+	 * @param distancesTo distancesTo[c] = distance from city c to the new city
+	 * @return int Number given to the new city
+	 */
+	public int addCity(double[] distancesFrom, double[] distancesTo) {
+		long free = ~cities & ~1L & ((1L << StateTable.MAX_CITIES) - 1);
+
+		if (free == 0)
+			throw new IllegalStateException("At most " + (StateTable.MAX_CITIES - 1) + " cities can be added to city 0");
+
+		int city = Long.numberOfTrailingZeros(free);
+		cities |= 1L << city;
+		setDistances(city, distancesFrom, distancesTo);
+		recompute(city);
+		return city;
+	}
+
+	/**
+	 * Removes a city from the set. No states are computed, as every state
+	 * of the cities that are left is already in the table
+	 *
+	 * @param city Number of the city
+	 */
+	public void removeCity(int city) {
+		checkCity(city);
+		cities &= ~(1L << city);
+	}
+
+	/**
+	 * Changes the distances to and from a city and computes every state that holds it again
+	 *
+	 * @param city Number of the city
+	 * @param distancesFrom distancesFrom[c] = new distance from the city to city c
+	 * @param distancesTo distancesTo[c] = new distance from city c to the city
+	 */
+	public void moveCity(int city, double[] distancesFrom, double[] distancesTo) {
+		checkCity(city);
+		setDistances(city, distancesFrom, distancesTo);
+		recompute(city);
+	}
+
+	/**
+	 * Checks that a city can be removed or moved
+	 */
+	void checkCity(int city) {
+		if (city == 0)
+			throw new IllegalArgumentException("City 0 is the start of every tour and cannot be changed");
+		if (!hasCity(city))
+			throw new IllegalArgumentException("City " + city + " is not in the set");
+	}
+
+	/**
+	 * Copies the distances of a city into the distance matrix. Only the
+	 * entries of cities in the set are read
+	 */
+	void setDistances(int city, double[] distancesFrom, double[] distancesTo) {
+		for (long remaining = cities | 1L; remaining != 0; remaining &= remaining - 1) {
+			int other = Long.numberOfTrailingZeros(remaining);
+
+			if (other != city) {
+				distanceMatrix[city][other] = distancesFrom[other];
+				distanceMatrix[other][city] = distancesTo[other];
+			}
+		}
+	}
+
+	/**
+	 * Computes every state whose subset holds the given city. The other cities of the
+	 * subsets are visited in increasing order of their bitmask, which puts every subset
+	 * after all of its own subsets
+	 *
+	 * @param city The city that was added or moved
+	 */
+	void recompute(int city) {
+		long cityBit = 1L << city;
+		long others = cities & ~cityBit;
+
+		for (long rest = 0;; rest = (rest - others) & others) {
+			long subset = rest | cityBit;
+
+			if (rest == 0) {
+				costTable.put(subset, city, distanceMatrix[0][city], 0);
+				statesComputed++;
+			} else {
+				for (long remaining = subset; remaining != 0; remaining &= remaining - 1) {
+					findMinimumCostSet(Long.numberOfTrailingZeros(remaining), subset);
+					statesComputed++;
+				}
+			}
+
+			if (rest == others)
+				break;
+		}
+	}
+
+	/**
+	 * Finds the shortest tour of the cities in the set from the stored states, in O(n)
+	 * time plus the backtracking. Cities in the path keep their numbers
+	 *
+	 * @return Tour The shortest path and its cost, which are also printed
+	 */
+	@Override
+	public Tour solveTSP() {
+		Tour tour;
+
+		if (cities == 0) {
+			tour = new Tour(new int[] { 0, 0 }, 0);
+		} else {
+			double bestCost = findMinimumCostSet(0, cities);
+			tour = new Tour(findBestPath(cities), bestCost);
+		}
+
+		System.out.println(tour);
+		return tour;
+	}
+}
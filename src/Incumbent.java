@@ -0,0 +1,64 @@
+/**
+ * Incumbent.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Incumbent class, holds the best tour found so far by a search, and can be shared
+ * by every thread (and every solver) working on the same input. Reading the cost does
+ * not lock, so it can be checked as often as needed to prune the search.
+ */
+public class Incumbent {
+
+	Tour tour;
+	volatile double cost = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Incumbent constructor, with no tour yet
+	 */
+	public Incumbent() {
+	}
+
+	/**
+	 * Incumbent constructor
+	 *
+	 * @param tour First tour, e.g. from a heuristic
+	 */
+	public Incumbent(Tour tour) {
+		offer(tour);
+	}
+
+	/**
+	 * Replaces the tour if the given one is shorter
+	 *
+	 * @param tour Tour that has been found
+	 * @return boolean True if it is now the best tour
+	 */
+	public synchronized boolean offer(Tour tour) {
+		if (tour.cost >= cost)
+			return false;
+
+		this.tour = tour;
+		this.cost = tour.cost;
+		return true;
+	}
+
+	/**
+	 * Gets the best tour found so far
+	 *
+	 * @return Tour The best tour, or null if there is none
+	 */
+	public synchronized Tour tour() {
+		return tour;
+	}
+
+	/**
+	 * Gets the cost of the best tour found so far
+	 *
+	 * @return double Cost of the best tour, infinite if there is none
+	 */
+	public double cost() {
+		return cost;
+	}
+}
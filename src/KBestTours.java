@@ -0,0 +1,212 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * KBestTours.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * KBestTours class, lists the tours of a filled Held-Karp table from the cheapest up,
+ * without running the DP again. A tour is a path back through the states, from the
+ * final state (every city, back at 0) to a state of one city, each step choosing a
+ * previous city. The table holds the optimal cost f of every state, so a tour's end
+ * that has been chosen so far (a suffix) can always be finished for exactly f(state) +
+ * the cost of the suffix. Suffixes are taken from a priority queue by that cost, so
+ * complete tours come out in order of cost.
+ *
+ * Previous cities are expanded lazily, in the style of Lawler and Eppstein: when a
+ * suffix is extended, its previous cities are sorted by cost, only the cheapest one is
+ * followed, and the choice of the next cheapest goes back into the queue as a
+ * candidate of its own. Each tour then costs O(n^2 log n) to find.
+ *
+ * On a symmetric input every tour appears twice, once in each direction, so only the
+ * direction whose second city is no larger than its last city is returned.
+ */
+public class KBestTours {
+
+	FilledTable table;
+	double[][] distanceMatrix;
+	boolean symmetric;
+	PriorityQueue<Candidate> queue = new PriorityQueue<>();
+
+	/**
+	 * Suffix, the end of a tour that has been chosen so far: a city, the state
+	 * it ends, and the suffix that comes after it
+	 */
+	static class Suffix {
+		int city;
+		long subset; /* the cities visited up to and including this city */
+		double cost; /* cost from this city to the end of the tour */
+		Suffix next;
+
+		Suffix(int city, long subset, double cost, Suffix next) {
+			this.city = city;
+			this.subset = subset;
+			this.cost = cost;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * Candidate, the choice of the rank-th cheapest previous city of a suffix.
+	 * Its priority is the cost of the cheapest tour that makes that choice
+	 */
+	static class Candidate implements Comparable<Candidate> {
+		Suffix suffix;
+		int[] previousCities; /* sorted from cheapest */
+		double[] costs; /* costs[r] = cost of the cheapest tour through previousCities[r] */
+		int rank;
+
+		Candidate(Suffix suffix, int[] previousCities, double[] costs, int rank) {
+			this.suffix = suffix;
+			this.previousCities = previousCities;
+			this.costs = costs;
+			this.rank = rank;
+		}
+
+		@Override
+		public int compareTo(Candidate other) {
+			return Double.compare(costs[rank], other.costs[other.rank]);
+		}
+	}
+
+	/**
+	 * KBestTours constructor, fills in a new table with every state
+	 *
+	 * @param distanceMatrix Distances between every pair of cities, 2 to 32 cities
+	 */
+	public KBestTours(double[][] distanceMatrix) {
+		this(TableQueries.solveEveryLayer(distanceMatrix));
+	}
+
+	/**
+	 * KBestTours constructor, on a Held-Karp solver whose solveTSP() has finished
+	 *
+	 * @param heldKarp Solver whose table holds every state (see TableQueries)
+	 */
+	public KBestTours(HeldKarp heldKarp) {
+		this(FilledTable.of(heldKarp));
+	}
+
+	/**
+	 * KBestTours constructor, on a table that has already been filled in, e.g. a TableFile
+	 *
+	 * @param table Every state of the table
+	 */
+	public KBestTours(FilledTable table) {
+		this.table = table;
+		this.distanceMatrix = table.distanceMatrix;
+		this.symmetric = HeldKarp.isSymmetric(distanceMatrix);
+
+		if (distanceMatrix.length < 2)
+			throw new IllegalArgumentException("A tour needs at least 2 cities");
+
+		/* the final state is back at city 0 after visiting every other city */
+		expand(new Suffix(0, table.subsetSpace.all(), 0, null));
+	}
+
+	/**
+	 * Finds the cheapest tours
+	 *
+	 * @param k Number of tours to find
+	 * @return List The k cheapest tours (fewer if there are not that many), cheapest first
+	 */
+	public List<Tour> find(int k) {
+		List<Tour> tours = new ArrayList<>();
+		Tour tour;
+
+		while (tours.size() < k && (tour = next()) != null)
+			tours.add(tour);
+
+		return tours;
+	}
+
+	/**
+	 * Finds the next cheapest tour after the ones already returned
+	 *
+	 * @return Tour The next tour, or null if every tour has been returned
+	 */
+	public Tour next() {
+		Candidate candidate;
+
+		while ((candidate = queue.poll()) != null) {
+
+			/* the next cheapest previous city of the same suffix waits its turn */
+			if (candidate.rank + 1 < candidate.previousCities.length)
+				queue.add(new Candidate(candidate.suffix, candidate.previousCities, candidate.costs, candidate.rank + 1));
+
+			Suffix suffix = candidate.suffix;
+			int city = candidate.previousCities[candidate.rank];
+			Suffix extended = new Suffix(city, suffix.subset & ~(1L << suffix.city),
+					distanceMatrix[city][suffix.city] + suffix.cost, suffix);
+
+			/* a state of one city is reached straight from city 0, so the tour is complete */
+			if (Long.bitCount(extended.subset) == 1) {
+				Tour tour = tourOf(extended);
+
+				if (!symmetric || tour.path[1] <= tour.path[tour.path.length - 2])
+					return tour;
+			} else {
+				expand(extended);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sorts the previous cities of a suffix's state by the cost of the cheapest tour
+	 * through each one, and queues the choice of the cheapest
+	 *
+	 * @param suffix Suffix to extend
+	 */
+	void expand(Suffix suffix) {
+		long previousSubset = suffix.subset & ~(1L << suffix.city);
+		int[] previousCities = new int[Long.bitCount(previousSubset)];
+		double[] costs = new double[previousCities.length];
+		int size = 0;
+
+		for (long remaining = previousSubset; remaining != 0; remaining &= remaining - 1) {
+			int city = Long.numberOfTrailingZeros(remaining);
+			double cost = table.cost(previousSubset, city) + distanceMatrix[city][suffix.city] + suffix.cost;
+
+			if (cost == Double.POSITIVE_INFINITY)
+				continue;
+
+			/* insertion sort, as there are at most 31 previous cities */
+			int pos = size++;
+			for (; pos > 0 && costs[pos - 1] > cost; pos--) {
+				costs[pos] = costs[pos - 1];
+				previousCities[pos] = previousCities[pos - 1];
+			}
+			costs[pos] = cost;
+			previousCities[pos] = city;
+		}
+
+		if (size > 0) {
+			int[] sortedCities = new int[size];
+			double[] sortedCosts = new double[size];
+			System.arraycopy(previousCities, 0, sortedCities, 0, size);
+			System.arraycopy(costs, 0, sortedCosts, 0, size);
+
+			queue.add(new Candidate(suffix, sortedCities, sortedCosts, 0));
+		}
+	}
+
+	/**
+	 * Follows a complete suffix from its first city to the end
+	 *
+	 * @param suffix Suffix that starts at the city visited straight after 0
+	 * @return Tour The tour, starting and ending at 0
+	 */
+	Tour tourOf(Suffix suffix) {
+		int[] path = new int[distanceMatrix.length + 1];
+
+		for (int pos = 1; suffix.next != null; pos++, suffix = suffix.next)
+			path[pos] = suffix.city;
+
+		return new Tour(path, Tour.cost(path, distanceMatrix));
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * LayeredStateTable.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * LayeredStateTable class, keeps a separate StateTable for each subset size. Solvers
+ * that only keep some of the states (and push each layer forwards into the next)
+ * need to walk through exactly the states of one layer, which a single table cannot
+ * do without visiting every other layer too. Each layer grows as states are put into it.
+ */
+public class LayeredStateTable implements CostTable {
+
+	static final int INITIAL_LAYER_SIZE = 1024;
+
+	StateTable[] layers; /* layers[k] holds the states whose subset has k cities */
+
+	/**
+	 * LayeredStateTable constructor
+	 *
+	 * @param numberOfCities Total number of cities, including the first city
+	 */
+	public LayeredStateTable(int numberOfCities) {
+		if (numberOfCities > StateTable.MAX_CITIES)
+			throw new IllegalArgumentException("LayeredStateTable supports at most " + StateTable.MAX_CITIES + " cities");
+
+		this.layers = new StateTable[numberOfCities + 1];
+	}
+
+	/**
+	 * Gets the table of one layer, creating it if it does not exist yet
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 * @return StateTable The layer's table
+	 */
+	public StateTable layer(int subsetSize) {
+		if (layers[subsetSize] == null)
+			layers[subsetSize] = new StateTable(INITIAL_LAYER_SIZE);
+
+		return layers[subsetSize];
+	}
+
+	/**
+	 * Gets the total number of states in every layer
+	 *
+	 * @return long Number of states
+	 */
+	public long count() {
+		long states = 0;
+
+		for (StateTable layer : layers) {
+			if (layer != null)
+				states += layer.count();
+		}
+		return states;
+	}
+
+	@Override
+	public double cost(long subset, int city) {
+		StateTable layer = layers[Long.bitCount(subset)];
+		return layer == null ? Double.POSITIVE_INFINITY : layer.cost(subset, city);
+	}
+
+	@Override
+	public int previousCity(long subset, int city) {
+		StateTable layer = layers[Long.bitCount(subset)];
+		return layer == null ? -1 : layer.previousCity(subset, city);
+	}
+
+	@Override
+	public void put(long subset, int city, double cost, int previousCity) {
+		layer(Long.bitCount(subset)).put(subset, city, cost, previousCity);
+	}
+}
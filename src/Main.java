@@ -1,5 +1,8 @@
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /**
@@ -14,6 +17,20 @@ import java.util.Scanner;
  * Then, run the program and a distance matrix will be created from the data file, and the Held-Karp
  * algorithm will be run on that matrix, printing out the best path, cost and running time 
  * after it is finished.
+ * 
+ * To solve a data set whose states do not fit in memory, run with --disk <directory>,
+ * and the layers of the algorithm will be kept in files in that directory instead.
+ * Run with --branch-and-bound to solve with branch and bound instead of Held-Karp, which
+ * is also used for symmetric data sets whenever the Held-Karp table would not fit in memory
+ * (e.g. test4-2020 and test4-21).
+ * Run with --portfolio to race every solver against each other, and stop as soon as one
+ * of them proves a tour optimal. For much larger data sets, run with --window <k> to improve
+ * a heuristic tour by solving every k cities in a row of it exactly, or with --restricted <k>
+ * to find the best tour in which no city moves more than k places from a heuristic tour.
+ * Run with --table <file> to keep every state of the solve in that file, so the next run
+ * on the same data set reads the tour back from it instead of solving again.
+ * Run with --checkpoint <directory> to save the solve to that directory after every layer,
+ * and add --resume to carry on from the last layer saved there after the solve was stopped.
  */
 public class Main {
 
@@ -21,12 +38,43 @@ public class Main {
 
 		long startTime = System.nanoTime(); /* start the timer */
 
+		/* an optional directory to keep the layers in, for data sets too large for memory */
+		Path diskDirectory = null;
+		Path tableFile = null; /* if set, a file holding every state of a previous solve */
+		Path checkpointDirectory = null; /* if set, every layer is saved to this directory */
+		int windowSize = 0; /* if set, the number of cities in a row of the tour to solve exactly */
+		int maxDeviation = 0; /* if set, how far cities may move from a heuristic tour */
+		for (int arg = 0; arg < args.length - 1; arg++) {
+			if (args[arg].equals("--disk"))
+				diskDirectory = Paths.get(args[arg + 1]);
+			if (args[arg].equals("--table"))
+				tableFile = Paths.get(args[arg + 1]);
+			if (args[arg].equals("--checkpoint"))
+				checkpointDirectory = Paths.get(args[arg + 1]);
+			if (args[arg].equals("--window"))
+				windowSize = Integer.parseInt(args[arg + 1]);
+			if (args[arg].equals("--restricted"))
+				maxDeviation = Integer.parseInt(args[arg + 1]);
+		}
+
+		/* branch and bound can be picked over Held-Karp, e.g. for 25 to 80 cities */
+		boolean branchAndBound = false, portfolio = false, resume = false;
+		for (String arg : args) {
+			if (arg.equals("--branch-and-bound"))
+				branchAndBound = true;
+			if (arg.equals("--portfolio"))
+				portfolio = true;
+			if (arg.equals("--resume"))
+				resume = true;
+		}
+
 		String dataFile = System.getProperty("user.dir") + File.separator + "data" + File.separator + "test3-21.txt";
 		System.out.println("Loading from " + dataFile);
 
 		File file = new File(dataFile); /* create file object to use a scanner on */
 
 		double[][] distanceMatrix = new double[0][0];
+		double[][] coordinates = new double[0][0]; /* x and y of each city, used to find the convex hull */
 
 		try {
 			/* convert the file to a string so it can be split by newlines */
@@ -37,6 +85,7 @@ public class Main {
 
 			/* distance matrix lengths are equal to the number of cities/lines in the file */
 			distanceMatrix = new double[fileArray.length][fileArray.length];
+			coordinates = new double[fileArray.length][2];
 
 			/* delimit the file by either spaces or tabs */
 			String fileDelimiter = fileArray[0].contains(" ") ? " " : "\\t";
@@ -51,6 +100,9 @@ public class Main {
 				   this forms the data for the fromCities */
 				fromCityData = fileArray[fromCity].trim().replaceAll("\n ", "").split(fileDelimiter);
 
+				coordinates[fromCity][0] = Integer.parseInt(fromCityData[1]);
+				coordinates[fromCity][1] = Integer.parseInt(fromCityData[2]);
+
 				for (int toCity = 0; toCity < fileArray.length; toCity++) {
 
 					/* do the same for the toCity's data, a nested loop is required
@@ -75,11 +127,63 @@ public class Main {
 		} finally {
 
 			/* construct a HeldKarp object on the distance matrix, and then call the solveTSP()
-			   function which will find the best path and its cost */
-			HeldKarp heldKarp = new HeldKarp(distanceMatrix);
+			   function which will find the best path and its cost. The states are stored in a
+			   DenseTable, which uses exactly one slot per state and needs no hashing, and only keeps
+			   the costs of the two newest layers, or in files on disk if a directory was given.
+			   Each layer of the algorithm is split across every available core */
+			int threads = Runtime.getRuntime().availableProcessors();
+
+			boolean symmetric = HeldKarp.isSymmetric(distanceMatrix);
+
+			/* Held-Karp is only run when its table fits in memory, or in files on disk */
+			boolean heldKarpFits = diskDirectory != null ? distanceMatrix.length <= StateTable.MAX_CITIES
+					: Portfolio.heldKarpFits(distanceMatrix.length);
+
+			if (maxDeviation > 0) {
+				System.out.println("Improving a heuristic tour, moving each city at most " + maxDeviation + " places.\n");
+				new RestrictedHeldKarp(distanceMatrix, maxDeviation).solveTSP();
+
+			} else if (windowSize > 0) {
+				System.out.println("Improving a heuristic tour " + windowSize + " cities at a time.\n");
+				new WindowOptimiser(distanceMatrix, windowSize, threads).solveTSP();
+
+			} else if (portfolio) {
+				System.out.println("Racing every solver.\n");
+				new Portfolio(distanceMatrix, threads).solveTSP();
+
+			} else if ((branchAndBound || !heldKarpFits) && symmetric) {
+
+				/* the other exact algorithm, which searches the tours themselves,
+				   ruling out most of them with 1-tree lower bounds. It needs next to
+				   no memory, so it takes over whenever the Held-Karp table would not fit */
+				System.out.println("Running branch and bound.\n");
+				new BranchAndBound(distanceMatrix, threads, new Incumbent()).solveTSP();
+
+			} else if (!heldKarpFits) {
 
-			System.out.println("Running Held-Karp.\n");
-			heldKarp.solveTSP();
+				/* the Held-Karp table would not fit and the input is asymmetric, so the best
+				   that can be found is a heuristic tour and how far it can be from optimal */
+				System.out.println("The Held-Karp table would not fit in memory, finding the 1-tree lower bound.\n");
+				new OneTreeBound(distanceMatrix).solve();
+
+			} else if (tableFile != null && DenseTable.fitsInArrays(distanceMatrix.length)) {
+				solveWithTableFile(distanceMatrix, tableFile);
+
+			} else if (diskDirectory != null) {
+				System.out.println("Running Held-Karp.\n");
+				try (MappedTable mappedTable = new MappedTable(distanceMatrix.length, diskDirectory)) {
+					solve(distanceMatrix, coordinates, mappedTable, threads, null);
+				}
+			} else if (checkpointDirectory != null) {
+				System.out.println((resume ? "Resuming" : "Running") + " Held-Karp, saving every layer to "
+						+ checkpointDirectory + ".\n");
+				try (Checkpoints checkpoints = new Checkpoints(checkpointDirectory, resume)) {
+					solve(distanceMatrix, coordinates, new DenseTable(distanceMatrix.length, true), threads, checkpoints);
+				}
+			} else {
+				System.out.println("Running Held-Karp.\n");
+				solve(distanceMatrix, coordinates, new DenseTable(distanceMatrix.length, true), threads, null);
+			}
 
 			/* calculate running time of the algorithm */
 			long endTime = System.nanoTime();
@@ -92,4 +196,59 @@ public class Main {
 
 	}
 
+	/**
+	 * Reads the tour back from a table file saved by an earlier run, or solves every
+	 * layer and saves them to the file if it does not exist yet
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param tableFile File holding every state
+	 */
+	static void solveWithTableFile(double[][] distanceMatrix, Path tableFile) {
+		FilledTable table;
+
+		if (Files.exists(tableFile)) {
+			System.out.println("Reading the states from " + tableFile + ".\n");
+			table = TableFile.open(tableFile, distanceMatrix);
+		} else {
+			System.out.println("Running Held-Karp, saving every state to " + tableFile + ".\n");
+			HeldKarp heldKarp = TableQueries.solveEveryLayer(distanceMatrix);
+			TableFile.save(heldKarp, tableFile, false);
+			table = FilledTable.of(heldKarp);
+		}
+
+		System.out.println(new TableQueries(table).tourOf(table.subsetSpace.all()));
+	}
+
+	/**
+	 * Runs Held-Karp on every core, storing the states in the given table. The data
+	 * sets are Euclidean, so the tour is found from the middle layers whenever the
+	 * distance matrix is symmetric. Before it runs, a quick heuristic tour is used to
+	 * rule out the edges that cannot be in any shorter tour, and states that visit the
+	 * corners of the convex hull out of order are skipped
+	 * 
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param coordinates x and y coordinates of every city
+	 * @param costTable Table to store the states in
+	 * @param threads Number of threads to run each layer on
+	 * @param checkpoints Directory to save every layer to, or null
+	 */
+	static void solve(double[][] distanceMatrix, double[][] coordinates, CostTable costTable, int threads,
+			Checkpoints checkpoints) {
+		HeldKarp heldKarp = new ParallelHeldKarp(distanceMatrix, costTable, threads);
+
+		if (distanceMatrix.length >= 3) {
+			long[] neighbourMasks = EdgeElimination.neighbourMasks(distanceMatrix,
+					Heuristics.upperBound(distanceMatrix).cost);
+
+			System.out.println("Kept " + EdgeElimination.edgesKept(neighbourMasks) + " of "
+					+ distanceMatrix.length * (distanceMatrix.length - 1) / 2 + " edges.");
+			heldKarp.restrictEdges(neighbourMasks);
+		}
+
+		heldKarp.setConvexHullOrder(new ConvexHullOrder(coordinates));
+		heldKarp.setMeetInTheMiddle(true);
+		heldKarp.setCheckpoints(checkpoints);
+		heldKarp.solveTSP();
+	}
+
 }
@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * MappedTable.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * MappedTable class, an OffHeapTable whose layers are files on disk, for problems
+ * where the states do not fit in memory at all. Each array of a layer is its own
+ * file, memory-mapped in 1 GiB chunks, so the operating system pages the states in
+ * and out as they are used and only the parts being read and written need to be in
+ * memory. Layers are in rank order, so each thread writes its range of layer k from
+ * start to end. Reads of layer k - 1 are not sequential: the state (S, j) reads the
+ * states of S without j, each found by its own rank, so the reads jump around the
+ * layer below (removing a high city from S lands much earlier in it than a low one).
+ *
+ * The table always rolls its layers. When a layer is started, a background thread
+ * loads the whole layer below it into memory, one chunk after another from the start,
+ * so the scattered reads find their pages already loaded whenever that layer fits in
+ * memory; when it does not, they are paged in from disk as they are made. The cost
+ * files of every older layer are deleted. Previous cities are
+ * needed to backtrack the path, so their files are only deleted when the table is closed.
+ */
+public class MappedTable extends OffHeapTable {
+
+	Path directory; /* directory the layer files are created in */
+	Map<OffHeapArray, Path> files = new IdentityHashMap<>(); /* file behind each array */
+	ExecutorService prefetcher;
+
+	/**
+	 * MappedTable constructor
+	 *
+	 * @param numberOfCities Total number of cities, including the first city
+	 * @param directory Directory to create the layer files in, which is created if needed
+	 */
+	public MappedTable(int numberOfCities, Path directory) {
+		super(numberOfCities, true);
+		this.directory = directory;
+
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not create " + directory, e);
+		}
+
+		this.prefetcher = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "layer-prefetch");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Allocates a layer, then starts loading the layer below it, which the
+	 * new layer reads from while it is computed
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 */
+	@Override
+	public void allocateLayer(int subsetSize) {
+		super.allocateLayer(subsetSize);
+
+		OffHeapArray previousLayer = costs[subsetSize - 1];
+		if (previousLayer != null)
+			prefetcher.execute(() -> prefetch(previousLayer));
+	}
+
+	/**
+	 * Loads every chunk of an array into memory, in order. Reading the file
+	 * sequentially is far faster than the scattered page faults of the threads
+	 * reading from it, although it does not follow the order they read in
+	 *
+	 * @param array Array to load
+	 */
+	void prefetch(OffHeapArray array) {
+		for (ByteBuffer chunk : array.chunks) {
+			if (Thread.currentThread().isInterrupted())
+				return; /* the table has been closed */
+			((MappedByteBuffer) chunk).load();
+		}
+	}
+
+	/**
+	 * Creates the file for an array and maps it into memory
+	 *
+	 * @param name Name of the array, used as the file name
+	 * @param bytes Size of the array in bytes
+	 * @return OffHeapArray Array backed by the file
+	 */
+	@Override
+	OffHeapArray allocate(String name, long bytes) {
+		Path file = directory.resolve(name + ".layer");
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+			ByteBuffer[] chunks = new ByteBuffer[(int) ((bytes + OffHeapArray.CHUNK_MASK) >>> OffHeapArray.CHUNK_SHIFT)];
+
+			/* a mapping stays valid after its channel has been closed */
+			for (int chunk = 0; chunk < chunks.length; chunk++) {
+				long start = (long) chunk << OffHeapArray.CHUNK_SHIFT;
+				long chunkBytes = Math.min(OffHeapArray.CHUNK_MASK + 1, bytes - start);
+
+				chunks[chunk] = channel.map(FileChannel.MapMode.READ_WRITE, start, chunkBytes)
+						.order(ByteOrder.nativeOrder());
+			}
+
+			OffHeapArray array = new OffHeapArray(bytes, chunks);
+			synchronized (files) {
+				files.put(array, file);
+			}
+			return array;
+
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not map " + file, e);
+		}
+	}
+
+	/**
+	 * Deletes the file behind an array. The space on disk is freed once
+	 * the mapping itself has been collected
+	 *
+	 * @param array Array to release, may be null
+	 */
+	@Override
+	void release(OffHeapArray array) {
+		Path file;
+
+		synchronized (files) {
+			file = array == null ? null : files.remove(array);
+		}
+
+		if (file == null)
+			return;
+
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not delete " + file, e);
+		}
+	}
+
+	/**
+	 * Stops prefetching and deletes every layer file
+	 */
+	@Override
+	public void close() {
+		prefetcher.shutdownNow();
+		super.close();
+	}
+}
@@ -0,0 +1,119 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeapArray.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * OffHeapArray class, a fixed size array of bytes outside of the java heap that is
+ * indexed with a long. Java arrays and buffers are indexed with an int, so the
+ * memory is split into chunks of 1 GiB, each held in its own direct ByteBuffer,
+ * and an index is split into the chunk and the offset within it. Doubles are stored
+ * 8-byte aligned, so one never crosses from one chunk into the next.
+ *
+ * The garbage collector sees one small object per chunk, however much memory the
+ * array holds. Only absolute gets and puts are used, so many threads may read and
+ * write different parts of the array at the same time.
+ */
+public class OffHeapArray {
+
+	static final int CHUNK_SHIFT = 30; /* each chunk holds 2^30 bytes */
+	static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+	long bytes; /* total size of the array in bytes */
+	ByteBuffer[] chunks;
+
+	/**
+	 * OffHeapArray constructor, allocates the given number of bytes. Every byte starts as 0
+	 *
+	 * @param bytes Size of the array in bytes
+	 */
+	public OffHeapArray(long bytes) {
+		this.bytes = bytes;
+		this.chunks = new ByteBuffer[(int) ((bytes + CHUNK_MASK) >>> CHUNK_SHIFT)];
+
+		for (int chunk = 0; chunk < chunks.length; chunk++) {
+			long chunkBytes = Math.min(CHUNK_MASK + 1, bytes - ((long) chunk << CHUNK_SHIFT));
+			chunks[chunk] = ByteBuffer.allocateDirect((int) chunkBytes).order(ByteOrder.nativeOrder());
+		}
+	}
+
+	/**
+	 * OffHeapArray constructor, wraps buffers that have already been created (for
+	 * example memory-mapped parts of a file). Every buffer apart from the last must
+	 * hold exactly 2^30 bytes
+	 *
+	 * @param bytes Size of the array in bytes
+	 * @param chunks Buffers holding the array
+	 */
+	OffHeapArray(long bytes, ByteBuffer[] chunks) {
+		this.bytes = bytes;
+		this.chunks = chunks;
+	}
+
+	/**
+	 * Gets the size of the array
+	 *
+	 * @return long Size of the array in bytes
+	 */
+	public long bytes() {
+		return bytes;
+	}
+
+	/**
+	 * Gets the double at the given index, counting in doubles
+	 *
+	 * @param index Index of the double
+	 * @return double Value at the index
+	 */
+	public double getDouble(long index) {
+		long offset = index << 3;
+		return chunks[(int) (offset >>> CHUNK_SHIFT)].getDouble((int) (offset & CHUNK_MASK));
+	}
+
+	/**
+	 * Sets the double at the given index, counting in doubles
+	 *
+	 * @param index Index of the double
+	 * @param value Value to store
+	 */
+	public void putDouble(long index, double value) {
+		long offset = index << 3;
+		chunks[(int) (offset >>> CHUNK_SHIFT)].putDouble((int) (offset & CHUNK_MASK), value);
+	}
+
+	/**
+	 * Gets the byte at the given index
+	 *
+	 * @param index Index of the byte
+	 * @return byte Value at the index
+	 */
+	public byte getByte(long index) {
+		return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+	}
+
+	/**
+	 * Sets the byte at the given index
+	 *
+	 * @param index Index of the byte
+	 * @param value Value to store
+	 */
+	public void putByte(long index, byte value) {
+		chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+	}
+
+	/**
+	 * Sets every double in the array to the given value
+	 *
+	 * @param value Value to store
+	 */
+	public void fillDoubles(double value) {
+		for (ByteBuffer chunk : chunks) {
+			for (int offset = 0; offset + Double.BYTES <= chunk.capacity(); offset += Double.BYTES)
+				chunk.putDouble(offset, value);
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ * OffHeapTable.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * OffHeapTable class, stores the Held-Karp states in the same rank order as a
+ * DenseTable (state p of the subset with rank r is at index r * k + p of layer k),
+ * but each layer is an OffHeapArray instead of a java array. Indexes are longs, so
+ * a layer can hold more than 2^31 states, which DenseTable cannot do from 31 cities
+ * upwards, and the states are never scanned or moved by the garbage collector.
+ *
+ * The table is tied to one solve: closing it releases every layer, after which it
+ * can no longer be used, e.g.
+ *
+ *     try (OffHeapTable table = new OffHeapTable(n, true)) {
+ *         new HeldKarp(distanceMatrix, table).solveTSP();
+ *     }
+ *
+ * Direct buffers can only be returned to the operating system by the garbage
+ * collector, so the memory is given back at the next collection after a layer is
+ * released rather than straight away.
+ */
+public class OffHeapTable implements CostTable, AutoCloseable {
+
+	int cities; /* number of cities that can be in a subset, n - 1 as city 0 is the start */
+	SubsetSpace subsetSpace; /* ranks the subsets of the cities 1 to n - 1 */
+	OffHeapArray[] costs; /* costs[k] holds every state of layer k, allocated when first used */
+	OffHeapArray[] previousCities;
+	boolean rolling; /* if true, only the two newest cost layers are kept */
+	int releasedLayers; /* cost layers 1 to releasedLayers have been freed */
+	boolean closed;
+
+	/* states that return to the first city, one slot per subset */
+	OffHeapArray[] returnCosts;
+	OffHeapArray[] returnPreviousCities;
+
+	/**
+	 * OffHeapTable constructor
+	 *
+	 * @param numberOfCities Total number of cities, including the first city
+	 * @param rolling If true, each cost layer is freed once the layer above it is complete
+	 */
+	public OffHeapTable(int numberOfCities, boolean rolling) {
+		this.cities = numberOfCities - 1;
+		this.rolling = rolling;
+
+		if (numberOfCities > StateTable.MAX_CITIES)
+			throw new IllegalArgumentException("OffHeapTable supports at most " + StateTable.MAX_CITIES + " cities");
+
+		this.subsetSpace = new SubsetSpace(cities, 1);
+
+		this.costs = new OffHeapArray[cities + 1];
+		this.previousCities = new OffHeapArray[cities + 1];
+		this.returnCosts = new OffHeapArray[cities + 1];
+		this.returnPreviousCities = new OffHeapArray[cities + 1];
+	}
+
+	/**
+	 * Gets the number of states in a layer
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 * @return long Number of states in the layer
+	 */
+	public long layerSize(int subsetSize) {
+		return subsetSpace.count(subsetSize) * subsetSize;
+	}
+
+	/**
+	 * Gets the index of a state in its layer
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at, must be in the subset
+	 * @return long Index of the state
+	 */
+	long index(long subset, int city) {
+		return subsetSpace.index(subset, city);
+	}
+
+	@Override
+	public double cost(long subset, int city) {
+		int size = Long.bitCount(subset);
+		checkOpen();
+
+		if ((subset & (1L << city)) == 0) {
+			if (returnCosts[size] == null)
+				return Double.POSITIVE_INFINITY;
+			return returnCosts[size].getDouble(subsetSpace.rank(subset));
+		}
+
+		if (size <= releasedLayers)
+			throw new IllegalStateException("Costs of layer " + size + " have been freed");
+
+		if (costs[size] == null)
+			return Double.POSITIVE_INFINITY;
+		return costs[size].getDouble(index(subset, city));
+	}
+
+	@Override
+	public int previousCity(long subset, int city) {
+		int size = Long.bitCount(subset);
+		checkOpen();
+
+		if ((subset & (1L << city)) == 0) {
+			if (returnPreviousCities[size] == null)
+				return -1;
+			return returnPreviousCities[size].getByte(subsetSpace.rank(subset));
+		}
+
+		if (previousCities[size] == null)
+			return -1;
+		return previousCities[size].getByte(index(subset, city));
+	}
+
+	@Override
+	public void put(long subset, int city, double cost, int previousCity) {
+		int size = Long.bitCount(subset);
+		checkOpen();
+
+		/* a state that ends outside of its subset returns to the first city */
+		if ((subset & (1L << city)) == 0) {
+			if (returnCosts[size] == null)
+				allocateReturnLayer(size);
+
+			long rank = subsetSpace.rank(subset);
+			returnCosts[size].putDouble(rank, cost);
+			returnPreviousCities[size].putByte(rank, (byte) previousCity);
+			return;
+		}
+
+		if (costs[size] == null)
+			allocateLayer(size);
+
+		long index = index(subset, city);
+		costs[size].putDouble(index, cost);
+		previousCities[size].putByte(index, (byte) previousCity);
+	}
+
+	/**
+	 * Every state has its own slot in each array, so threads never write to the same place
+	 *
+	 * @return boolean Always true
+	 */
+	@Override
+	public boolean allowsConcurrentPuts() {
+		return true;
+	}
+
+	/**
+	 * Allocates the arrays for a layer, with every cost set to infinity until it
+	 * is stored. In a rolling table, this frees every cost layer more than one below it
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 */
+	@Override
+	public void allocateLayer(int subsetSize) {
+		long states = layerSize(subsetSize);
+		checkOpen();
+
+		if (rolling) {
+			for (int size = releasedLayers + 1; size <= subsetSize - 2; size++) {
+				release(costs[size]);
+				costs[size] = null;
+			}
+
+			releasedLayers = Math.max(releasedLayers, subsetSize - 2);
+		}
+
+		costs[subsetSize] = allocate("costs-" + subsetSize, states * Double.BYTES);
+		previousCities[subsetSize] = allocate("previous-" + subsetSize, states);
+		costs[subsetSize].fillDoubles(Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Allocates the arrays for the states that return to the first
+	 * city from subsets of the given size
+	 *
+	 * @param subsetSize Size of the subsets
+	 */
+	void allocateReturnLayer(int subsetSize) {
+		long subsets = subsetSpace.count(subsetSize);
+
+		returnCosts[subsetSize] = allocate("return-costs-" + subsetSize, subsets * Double.BYTES);
+		returnPreviousCities[subsetSize] = allocate("return-previous-" + subsetSize, subsets);
+		returnCosts[subsetSize].fillDoubles(Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Creates the storage for one array of a layer
+	 *
+	 * @param name Name of the array, unique within the table
+	 * @param bytes Size of the array in bytes
+	 * @return OffHeapArray New array
+	 */
+	OffHeapArray allocate(String name, long bytes) {
+		return new OffHeapArray(bytes);
+	}
+
+	/**
+	 * Called when an array is no longer needed. Arrays in memory are simply
+	 * dropped, for the garbage collector to free
+	 *
+	 * @param array Array to release, may be null
+	 */
+	void release(OffHeapArray array) {
+	}
+
+	/**
+	 * Releases every layer. The table cannot be used after it has been closed
+	 */
+	@Override
+	public void close() {
+		if (closed)
+			return;
+		closed = true;
+
+		for (int size = 0; size <= cities; size++) {
+			release(costs[size]);
+			release(previousCities[size]);
+			release(returnCosts[size]);
+			release(returnPreviousCities[size]);
+
+			costs[size] = null;
+			previousCities[size] = null;
+			returnCosts[size] = null;
+			returnPreviousCities[size] = null;
+		}
+	}
+
+	/**
+	 * Checks that the table has not been closed
+	 */
+	void checkOpen() {
+		if (closed)
+			throw new IllegalStateException("OffHeapTable has been closed");
+	}
+}
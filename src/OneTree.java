@@ -0,0 +1,318 @@
+import java.util.Arrays;
+
+/**
+ * OneTree.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * OneTree class, computes the Held-Karp lower bound on the cost of a tour. A 1-tree is a
+ * minimum spanning tree over the cities 1 to n - 1 plus the two shortest edges from city 0.
+ * Every tour is a 1-tree (one in which every city has two edges), so the cheapest 1-tree
+ * is never more expensive than the optimal tour.
+ *
+ * The bound is tightened with Lagrangian multipliers: each city i gets a penalty p(i),
+ * every edge (i, j) costs d(i, j) + p(i) + p(j), and 2 * sum(p) is taken off the tree's
+ * cost. Tours keep the same cost under any penalties, but the tree changes, so the
+ * penalties are moved by subgradient optimisation (cities with too many edges are made
+ * more expensive, cities with one edge cheaper) until the bound stops improving.
+ *
+ * Edges cost the shorter of their two directions, so the bound is also valid for
+ * asymmetric inputs (although it is much weaker for them).
+ *
+ * Branch and bound searches can force and forbid edges: forbidden edges are never used,
+ * and forced edges are always taken before any other edge, which gives the cheapest
+ * 1-tree that contains every forced edge (as long as the forced edges form no cycle).
+ */
+public class OneTree {
+
+	static final int MAX_ITERATIONS = 1000;
+	static final int ITERATIONS_PER_STEP = 20; /* iterations without improvement before the step is halved */
+	static final double MIN_STEP = 1e-6;
+
+	static final byte FREE = 0;
+	static final byte FORCED = 1;
+	static final byte FORBIDDEN = 2;
+
+	double[][] weights; /* weights[i][j] = the shorter of d(i, j) and d(j, i) */
+	int numberOfCities;
+	double[] penalties;
+	byte[][] edgeStates; /* FREE, FORCED or FORBIDDEN for each edge, or null if every edge is free */
+
+	/* the tree found by the last call to compute() */
+	int[] parent; /* parent of each city 1 to n - 1 in the spanning tree, -1 at its root */
+	int[] specialEdges; /* the two cities joined to city 0 */
+	int[] degrees;
+	double bound;
+
+	/**
+	 * OneTree constructor, every penalty starts at 0
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 */
+	public OneTree(double[][] distanceMatrix) {
+		this.numberOfCities = distanceMatrix.length;
+		this.weights = new double[numberOfCities][numberOfCities];
+
+		if (numberOfCities < 3)
+			throw new IllegalArgumentException("A 1-tree needs at least 3 cities");
+
+		for (int fromCity = 0; fromCity < numberOfCities; fromCity++) {
+			for (int toCity = 0; toCity < numberOfCities; toCity++)
+				weights[fromCity][toCity] = Math.min(distanceMatrix[fromCity][toCity], distanceMatrix[toCity][fromCity]);
+		}
+
+		this.penalties = new double[numberOfCities];
+		this.parent = new int[numberOfCities];
+		this.specialEdges = new int[2];
+		this.degrees = new int[numberOfCities];
+	}
+
+	/**
+	 * Gets the cost of an edge under the current penalties
+	 *
+	 * @param fromCity One end of the edge
+	 * @param toCity Other end of the edge
+	 * @return double Penalised cost of the edge
+	 */
+	public double reducedCost(int fromCity, int toCity) {
+		if (edgeStates != null && edgeStates[fromCity][toCity] == FORBIDDEN)
+			return Double.POSITIVE_INFINITY;
+
+		return weights[fromCity][toCity] + penalties[fromCity] + penalties[toCity];
+	}
+
+	/**
+	 * Checks whether an edge has been forced
+	 *
+	 * @param fromCity One end of the edge
+	 * @param toCity Other end of the edge
+	 * @return boolean True if the edge must be in the tree
+	 */
+	boolean isForced(int fromCity, int toCity) {
+		return edgeStates != null && edgeStates[fromCity][toCity] == FORCED;
+	}
+
+	/**
+	 * Checks whether one edge should be taken before another: forced edges come
+	 * first, then the cheaper edge
+	 *
+	 * @return boolean True if the first edge is better
+	 */
+	static boolean isBetter(boolean forced, double cost, boolean otherForced, double otherCost) {
+		return forced != otherForced ? forced : cost < otherCost;
+	}
+
+	/**
+	 * Finds the cheapest 1-tree under the current penalties using Prim's algorithm
+	 *
+	 * @return double Lower bound on the cost of any tour, infinite if the forced and
+	 * forbidden edges leave no 1-tree
+	 */
+	public double compute() {
+		double[] distances = new double[numberOfCities];
+		boolean[] forcedLinks = new boolean[numberOfCities]; /* true if the edge to the tree is forced */
+		boolean[] inTree = new boolean[numberOfCities];
+		double cost = 0;
+
+		Arrays.fill(degrees, 0);
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+
+		/* the spanning tree over the cities 1 to n - 1, grown from city 1 */
+		distances[1] = 0;
+		parent[1] = -1;
+
+		for (int added = 1; added < numberOfCities; added++) {
+			int nearestCity = -1;
+
+			for (int city = 1; city < numberOfCities; city++) {
+				if (!inTree[city] && (nearestCity < 0 || isBetter(forcedLinks[city], distances[city],
+						forcedLinks[nearestCity], distances[nearestCity])))
+					nearestCity = city;
+			}
+
+			inTree[nearestCity] = true;
+			cost += distances[nearestCity];
+
+			if (parent[nearestCity] >= 0) {
+				degrees[nearestCity]++;
+				degrees[parent[nearestCity]]++;
+			}
+
+			for (int city = 1; city < numberOfCities; city++) {
+				double edgeCost = reducedCost(nearestCity, city);
+				boolean forced = isForced(nearestCity, city);
+
+				if (!inTree[city] && isBetter(forced, edgeCost, forcedLinks[city], distances[city])) {
+					distances[city] = edgeCost;
+					forcedLinks[city] = forced;
+					parent[city] = nearestCity;
+				}
+			}
+		}
+
+		/* the two cheapest edges from city 0 (forced edges first) */
+		specialEdges[0] = specialEdges[1] = -1;
+		for (int city = 1; city < numberOfCities; city++) {
+			if (specialEdges[0] < 0 || isBetter(isForced(0, city), reducedCost(0, city),
+					isForced(0, specialEdges[0]), reducedCost(0, specialEdges[0]))) {
+				specialEdges[1] = specialEdges[0];
+				specialEdges[0] = city;
+			} else if (specialEdges[1] < 0 || isBetter(isForced(0, city), reducedCost(0, city),
+					isForced(0, specialEdges[1]), reducedCost(0, specialEdges[1]))) {
+				specialEdges[1] = city;
+			}
+		}
+
+		for (int edge = 0; edge < 2; edge++) {
+			cost += reducedCost(0, specialEdges[edge]);
+			degrees[specialEdges[edge]]++;
+		}
+		degrees[0] = 2;
+
+		for (int city = 0; city < numberOfCities; city++)
+			cost -= 2 * penalties[city];
+
+		bound = cost;
+		return bound;
+	}
+
+	/**
+	 * Checks whether the last tree found is a tour, in which case its
+	 * bound is the cost of the optimal tour
+	 *
+	 * @return boolean True if every city has exactly two edges
+	 */
+	public boolean isTour() {
+		for (int degree : degrees) {
+			if (degree != 2)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the path of the last tree found when it is a tour, by following its
+	 * edges from city 0
+	 *
+	 * @return int[] Cities in the order they are visited, starting and ending at 0
+	 */
+	public int[] tourPath() {
+		if (!isTour())
+			throw new IllegalStateException("The 1-tree is not a tour");
+
+		int[] path = new int[numberOfCities + 1];
+		boolean[] visited = new boolean[numberOfCities];
+		visited[0] = true;
+		path[1] = specialEdges[0];
+
+		for (int pos = 1; pos < numberOfCities - 1; pos++) {
+			int city = path[pos];
+			visited[city] = true;
+
+			/* the next city is the tree neighbour that has not been visited yet */
+			for (int next = 1; next < numberOfCities; next++) {
+				if (!visited[next] && (parent[next] == city || parent[city] == next)) {
+					path[pos + 1] = next;
+					break;
+				}
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Moves the penalties by subgradient optimisation to make the bound as large
+	 * as possible. The step size follows Polyak's rule, (upper bound - bound) over the
+	 * squared size of the subgradient, scaled by a factor that is halved whenever the
+	 * bound has not improved for a while. The best penalties found are kept, and
+	 * compute() is left holding their tree
+	 *
+	 * @param upperBound Cost of a known tour
+	 * @return double Best lower bound found
+	 */
+	public double optimise(double upperBound) {
+		return optimise(upperBound, MAX_ITERATIONS);
+	}
+
+	/**
+	 * Moves the penalties by subgradient optimisation for at most the given number
+	 * of iterations, starting from the current penalties
+	 *
+	 * @param upperBound Cost of a known tour
+	 * @param maxIterations Largest number of spanning trees to compute
+	 * @return double Best lower bound found
+	 */
+	public double optimise(double upperBound, int maxIterations) {
+		double[] bestPenalties = penalties.clone();
+		double bestBound = compute();
+		double scale = 2;
+		int sinceImproved = 0;
+
+		for (int iteration = 0; iteration < maxIterations && scale > MIN_STEP && bestBound < Double.POSITIVE_INFINITY
+				&& !isTour(); iteration++) {
+			double squaredSize = 0;
+
+			for (int city = 0; city < numberOfCities; city++)
+				squaredSize += (degrees[city] - 2) * (degrees[city] - 2);
+
+			double step = scale * (upperBound - bound) / squaredSize;
+
+			/* city 0 always has two edges, so its penalty never moves */
+			for (int city = 1; city < numberOfCities; city++)
+				penalties[city] += step * (degrees[city] - 2);
+
+			if (compute() > bestBound) {
+				bestBound = bound;
+				bestPenalties = penalties.clone();
+				sinceImproved = 0;
+			} else if (++sinceImproved >= ITERATIONS_PER_STEP) {
+				scale /= 2;
+				sinceImproved = 0;
+			}
+
+			/* the bound can never pass the optimal cost */
+			if (bestBound >= upperBound)
+				break;
+		}
+
+		penalties = bestPenalties;
+		return compute();
+	}
+
+	/**
+	 * Finds, for every pair of cities 1 to n - 1, the most expensive edge on the path
+	 * between them in the spanning tree. Adding an edge (i, j) to the tree and removing
+	 * that edge gives the cheapest 1-tree that contains (i, j)
+	 *
+	 * @return double[][] Largest reduced cost on the tree path between each pair of cities
+	 */
+	public double[][] largestPathEdges() {
+		double[][] largest = new double[numberOfCities][numberOfCities];
+
+		/* walk the tree from each city, so every other city is reached through its path */
+		for (int start = 1; start < numberOfCities; start++) {
+			int[] stack = new int[numberOfCities];
+			boolean[] visited = new boolean[numberOfCities];
+			int top = 0;
+
+			stack[top++] = start;
+			visited[start] = true;
+
+			while (top > 0) {
+				int city = stack[--top];
+
+				for (int next = 1; next < numberOfCities; next++) {
+					if (visited[next] || (parent[next] != city && parent[city] != next))
+						continue;
+
+					largest[start][next] = Math.max(largest[start][city], reducedCost(city, next));
+					visited[next] = true;
+					stack[top++] = next;
+				}
+			}
+		}
+		return largest;
+	}
+}
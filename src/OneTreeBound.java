@@ -0,0 +1,76 @@
+/**
+ * OneTreeBound.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * OneTreeBound class, the other half of Held and Karp's work on the TSP: instead of
+ * solving the problem exactly, it finds a lower bound on the cost of the optimal tour
+ * from 1-trees with subgradient-tuned penalties (see OneTree). Each iteration is one
+ * O(n^2) spanning tree, so even inputs far too large for the dynamic programming
+ * version are bounded in milliseconds. Together with a heuristic tour (an upper bound)
+ * this gives the optimality gap: how far, at most, the heuristic tour is from optimal.
+ */
+public class OneTreeBound {
+
+	double[][] distanceMatrix;
+	double lowerBound;
+	Tour upperBoundTour;
+	boolean optimal; /* true if the best 1-tree was itself a tour */
+
+	/**
+	 * OneTreeBound constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities, at least 3 cities
+	 */
+	public OneTreeBound(double[][] distanceMatrix) {
+		this.distanceMatrix = distanceMatrix;
+	}
+
+	/**
+	 * Finds a heuristic tour, then the best 1-tree lower bound, and prints both with
+	 * the gap between them
+	 *
+	 * @return double Lower bound on the cost of any tour
+	 */
+	public double solve() {
+		upperBoundTour = Heuristics.upperBound(distanceMatrix);
+
+		OneTree oneTree = new OneTree(distanceMatrix);
+		lowerBound = oneTree.optimise(upperBoundTour.cost);
+		optimal = oneTree.isTour() && HeldKarp.isSymmetric(distanceMatrix);
+
+		/* a 1-tree that is a tour is an optimal tour, which may beat the heuristic. The
+		   edges cost the shorter direction, so this only holds for symmetric inputs */
+		if (optimal) {
+			int[] path = oneTree.tourPath();
+			double cost = Tour.cost(path, distanceMatrix);
+
+			if (cost < upperBoundTour.cost)
+				upperBoundTour = new Tour(path, cost);
+		}
+
+		System.out.println(this);
+		return lowerBound;
+	}
+
+	/**
+	 * Gets the gap between the heuristic tour and the lower bound
+	 *
+	 * @return double (upper bound - lower bound) / lower bound, 0 if the tour is proven optimal
+	 */
+	public double gap() {
+		return Math.max(0, (upperBoundTour.cost - lowerBound) / lowerBound);
+	}
+
+	/**
+	 * toString override, prints the bounds and the gap
+	 */
+	@Override
+	public String toString() {
+		return "Lower bound = " + lowerBound + (optimal ? " (the best 1-tree is a tour)" : "")
+				+ "\nUpper bound = " + upperBoundTour.cost
+				+ "\nGap = " + String.format("%.4f", gap() * 100) + "%";
+	}
+}
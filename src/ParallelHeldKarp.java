@@ -0,0 +1,116 @@
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ParallelHeldKarp.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * ParallelHeldKarp class, runs each layer of Held-Karp on several cores. Every
+ * subset of size k only depends on the subsets of size k - 1, so all subsets of a
+ * layer can be computed at the same time. The subsets of a layer come from a
+ * SubsetSpace spliterator, which is split into ranges of colex ranks and handed to a
+ * ForkJoinPool (idle threads steal the remaining halves of busy threads' ranges). The
+ * pool finishes a layer before the next one is started. The cost table must allow
+ * states to be put from many threads (see CostTable.allowsConcurrentPuts()): in a
+ * DenseTable each state has its own slot, so the threads never write to the same
+ * place, and a ConcurrentStateTable claims its slots without locking.
+ */
+public class ParallelHeldKarp extends HeldKarp {
+
+	static final int MIN_SUBSETS_PER_TASK = 64; /* below this, a range is not worth splitting */
+	static final int TASKS_PER_THREAD = 8; /* extra tasks per thread give work stealing room to balance */
+
+	int threads;
+	ForkJoinPool pool; /* only set while solveLayers() is running */
+
+	/**
+	 * ParallelHeldKarp constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param costTable Table to store the states in, which must allow puts from many threads
+	 * @param threads Number of threads to run each layer on
+	 */
+	public ParallelHeldKarp(double[][] distanceMatrix, CostTable costTable, int threads) {
+		super(distanceMatrix, costTable);
+
+		if (!costTable.allowsConcurrentPuts())
+			throw new IllegalArgumentException(costTable.getClass().getSimpleName()
+					+ " does not allow puts from many threads, use a DenseTable or ConcurrentStateTable");
+
+		this.threads = threads;
+	}
+
+	/**
+	 * Computes every layer up to the given subset size with each layer split across
+	 * the pool's threads. Every solve goes through here, so the pool only exists
+	 * while layers are being computed
+	 * 
+	 * @param largestSubset Size of the subsets in the last layer to compute
+	 */
+	@Override
+	public void solveLayers(int largestSubset) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+
+		try {
+			this.pool = pool;
+			super.solveLayers(largestSubset);
+		} finally {
+			this.pool = null;
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Computes one layer by splitting its subsets into rank ranges and running
+	 * them on the pool. invoke() only returns once every range is complete, which
+	 * is the synchronisation point between layers
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 */
+	@Override
+	public void solveLayer(int subsetSize) {
+
+		long subsets = subsetSpace.count(subsetSize);
+		long taskSize = Math.max(MIN_SUBSETS_PER_TASK, subsets / ((long) threads * TASKS_PER_THREAD));
+
+		pool.invoke(new LayerTask(subsetSpace.spliterator(subsetSize), taskSize));
+	}
+
+	/**
+	 * LayerTask, computes every subset of a spliterator. Large spliterators
+	 * are split in half so that other threads can steal them
+	 */
+	class LayerTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		Spliterator.OfLong subsets;
+		long taskSize;
+
+		LayerTask(Spliterator.OfLong subsets, long taskSize) {
+			this.subsets = subsets;
+			this.taskSize = taskSize;
+		}
+
+		@Override
+		protected void compute() {
+			Spliterator.OfLong lowerHalf;
+
+			if (subsets.estimateSize() > taskSize && (lowerHalf = subsets.trySplit()) != null) {
+				invokeAll(new LayerTask(lowerHalf, taskSize), new LayerTask(subsets, taskSize));
+				return;
+			}
+
+			/* only the first subset of the range is unranked, the rest are found
+			   from the one before, so a task never holds more than one subset.
+			   Each task has its own kernel, made with the current neighbour masks,
+			   as its scratch buffers cannot be shared with other threads */
+			TransitionKernel kernel = newKernel();
+			subsets.forEachRemaining((long subset) -> solveSubset(subset, kernel));
+		}
+	}
+}
@@ -0,0 +1,331 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Portfolio.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Portfolio class, races several solvers on the same input and stops as soon as one of
+ * them proves a tour optimal. Which solver is fastest depends on the input, so rather
+ * than guessing, every one that applies is started on its own thread:
+ *  - Held-Karp, on every core, when its table fits in half of the heap (leaving the
+ *    rest to the solvers it races),
+ *  - branch and bound, when the input is symmetric,
+ *  - the 1-tree lower bound,
+ *  - nearest neighbour with 2-opt, then random insertion with 2-opt from random
+ *    orders, until it runs out of restarts or the race ends.
+ * Every solver shares one Incumbent, so a tour found by a heuristic immediately tightens
+ * branch and bound's pruning. The race ends when an exact solver finishes, or when the
+ * incumbent's cost meets the lower bound (so it cannot be beaten). The other solvers are
+ * then cancelled. If neither happens, the best tour found is returned unproven. A solver
+ * that fails (for example by running out of memory) drops out of the race as if it had
+ * returned without an answer.
+ */
+public class Portfolio {
+
+	static final int RESTARTS = 1000; /* random insertion tours the heuristic tries */
+	static final double TOLERANCE = 1e-9; /* relative slack when comparing the incumbent to the lower bound */
+
+	double[][] distanceMatrix;
+	int threads;
+	Incumbent incumbent;
+	volatile double lowerBound = Double.NEGATIVE_INFINITY;
+
+	List<Solver> solvers = new ArrayList<>();
+	CountDownLatch finished = new CountDownLatch(1);
+	int running; /* solvers that have not returned yet, guarded by this */
+	volatile boolean cancelled;
+
+	/* the result of the race */
+	Tour tour;
+	boolean optimal;
+	String finishedBy;
+
+	/**
+	 * Solver, one entry in the race. run() returns a tour that is proven optimal, or
+	 * null if it only improved the incumbent, and cancel() makes it stop early
+	 */
+	interface Solver {
+		String name();
+
+		Tour run();
+
+		void cancel();
+	}
+
+	/**
+	 * Portfolio constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param threads Number of threads Held-Karp and branch and bound each run on
+	 */
+	public Portfolio(double[][] distanceMatrix, int threads) {
+		this.distanceMatrix = distanceMatrix;
+		this.threads = threads;
+
+		/* every improvement is checked against the lower bound as soon as it is found */
+		this.incumbent = new Incumbent() {
+			@Override
+			public synchronized boolean offer(Tour tour) {
+				boolean improved = super.offer(tour);
+
+				if (improved)
+					checkLowerBound();
+				return improved;
+			}
+		};
+	}
+
+	/**
+	 * Starts every solver that applies to the input and waits for the race to end
+	 *
+	 * @return Tour The best tour found, which is also printed along with whether it is optimal
+	 */
+	public Tour solveTSP() {
+		int numberOfCities = distanceMatrix.length;
+
+		/* with fewer than 4 cities there is only one tour */
+		if (numberOfCities < 4) {
+			incumbent.offer(Heuristics.nearestNeighbour(distanceMatrix));
+			finish(incumbent.tour(), true, "nearest neighbour");
+			return result();
+		}
+
+		/* a quick first tour, so the race starts with an upper bound */
+		incumbent.offer(Heuristics.nearestNeighbour(distanceMatrix));
+
+		if (heldKarpFits(numberOfCities))
+			solvers.add(heldKarp());
+		if (HeldKarp.isSymmetric(distanceMatrix))
+			solvers.add(branchAndBound());
+		solvers.add(oneTreeBound());
+		solvers.add(heuristics());
+
+		List<Thread> workers = new ArrayList<>();
+		synchronized (this) {
+			running = solvers.size();
+		}
+
+		for (Solver solver : solvers) {
+			Thread worker = new Thread(() -> race(solver), "portfolio-" + solver.name());
+			worker.setDaemon(true);
+			workers.add(worker);
+			worker.start();
+		}
+
+		try {
+			finished.await();
+
+			for (Solver solver : solvers)
+				solver.cancel();
+			for (Thread worker : workers)
+				worker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while racing the solvers", e);
+		}
+
+		return result();
+	}
+
+	/**
+	 * Runs one solver on the current thread. An exact answer ends the race, and so
+	 * does the last solver returning without one
+	 *
+	 * @param solver Solver to run
+	 */
+	void race(Solver solver) {
+		try {
+			Tour optimalTour = solver.run();
+
+			if (optimalTour != null) {
+				incumbent.offer(optimalTour);
+				finish(optimalTour, true, solver.name());
+			}
+		} catch (CancellationException e) {
+			/* another solver ended the race */
+		} catch (RuntimeException | Error e) {
+			System.out.println("The " + solver.name() + " solver stopped without an answer: " + e);
+		} finally {
+			boolean last;
+			synchronized (this) {
+				last = --running == 0;
+			}
+
+			/* the incumbent is read outside of the lock, as offer() takes the locks the other way round */
+			if (last)
+				finish(incumbent.tour(), false, "every solver");
+		}
+	}
+
+	/**
+	 * Ends the race if the incumbent cannot be beaten, as its cost meets the lower bound
+	 */
+	void checkLowerBound() {
+		double cost = incumbent.cost();
+
+		if (cost <= lowerBound + Math.abs(lowerBound) * TOLERANCE)
+			finish(incumbent.tour(), true, "meeting the lower bound");
+	}
+
+	/**
+	 * Records the result of the race, if it has not already ended, and wakes up solveTSP()
+	 *
+	 * @param tour Best tour
+	 * @param optimal True if the tour is proven optimal
+	 * @param finishedBy What ended the race
+	 */
+	synchronized void finish(Tour tour, boolean optimal, String finishedBy) {
+		if (cancelled)
+			return;
+
+		cancelled = true;
+		this.tour = tour;
+		this.optimal = optimal;
+		this.finishedBy = finishedBy;
+		finished.countDown();
+	}
+
+	/**
+	 * Prints and returns the result of the race
+	 */
+	Tour result() {
+		System.out.println(tour);
+		System.out.println((optimal ? "Proven optimal" : "Not proven optimal") + ", finished by " + finishedBy + ".");
+		return tour;
+	}
+
+	/**
+	 * Checks whether Held-Karp's table fits in half of the heap, leaving the other
+	 * half to the solvers it races
+	 *
+	 * @param numberOfCities Total number of cities
+	 * @return boolean True if Held-Karp can join the race
+	 */
+	static boolean heldKarpFits(int numberOfCities) {
+		if (numberOfCities > StateTable.MAX_CITIES || !DenseTable.fitsInArrays(numberOfCities))
+			return false;
+
+		/* the table allocates nothing until its first layer */
+		return new DenseTable(numberOfCities, true).memoryRequired() <= Runtime.getRuntime().maxMemory() / 2;
+	}
+
+	/**
+	 * Held-Karp on every core, with the edges that cannot beat the first tour eliminated
+	 */
+	Solver heldKarp() {
+		return new Solver() {
+			volatile HeldKarp heldKarp; /* only set while it runs, so the table is freed when it stops */
+
+			public String name() {
+				return "Held-Karp";
+			}
+
+			public Tour run() {
+				heldKarp = new ParallelHeldKarp(distanceMatrix, new DenseTable(distanceMatrix.length, true), threads);
+
+				try {
+					heldKarp.restrictEdges(EdgeElimination.neighbourMasks(distanceMatrix, incumbent.cost()));
+					heldKarp.setMeetInTheMiddle(true);
+
+					/* the race may have ended before the solver was set */
+					if (cancelled)
+						heldKarp.cancel();
+					return heldKarp.solveTSP();
+				} finally {
+					heldKarp = null;
+				}
+			}
+
+			public void cancel() {
+				HeldKarp running = heldKarp;
+				if (running != null)
+					running.cancel();
+			}
+		};
+	}
+
+	/**
+	 * Branch and bound, sharing the incumbent with every other solver
+	 */
+	Solver branchAndBound() {
+		BranchAndBound branchAndBound = new BranchAndBound(distanceMatrix, threads, incumbent);
+
+		return new Solver() {
+			public String name() {
+				return "branch and bound";
+			}
+
+			public Tour run() {
+				return branchAndBound.solveTSP();
+			}
+
+			public void cancel() {
+				branchAndBound.cancel();
+			}
+		};
+	}
+
+	/**
+	 * The 1-tree lower bound, which proves the incumbent optimal once they meet. On a
+	 * symmetric input, a best 1-tree that is a tour is itself optimal
+	 */
+	Solver oneTreeBound() {
+		return new Solver() {
+			public String name() {
+				return "1-tree lower bound";
+			}
+
+			public Tour run() {
+				OneTree oneTree = new OneTree(distanceMatrix);
+				lowerBound = oneTree.optimise(incumbent.cost());
+
+				/* the tree's tour only costs the bound when every edge is the same both ways */
+				if (oneTree.isTour()) {
+					int[] path = oneTree.tourPath();
+					Tour tour = new Tour(path, Tour.cost(path, distanceMatrix));
+
+					if (HeldKarp.isSymmetric(distanceMatrix))
+						return tour;
+					incumbent.offer(tour);
+				}
+
+				checkLowerBound();
+				return null;
+			}
+
+			public void cancel() {
+			}
+		};
+	}
+
+	/**
+	 * Nearest neighbour and then random insertion tours, each improved by 2-opt
+	 */
+	Solver heuristics() {
+		return new Solver() {
+			public String name() {
+				return "heuristics";
+			}
+
+			public Tour run() {
+				Random random = new Random();
+				incumbent.offer(Heuristics.twoOpt(Heuristics.nearestNeighbour(distanceMatrix), distanceMatrix));
+
+				for (int restart = 0; restart < RESTARTS && !cancelled; restart++)
+					incumbent.offer(Heuristics.twoOpt(Heuristics.randomInsertion(distanceMatrix, random), distanceMatrix));
+
+				return null;
+			}
+
+			public void cancel() {
+			}
+		};
+	}
+}
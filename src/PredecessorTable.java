@@ -0,0 +1,111 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * PredecessorTable.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * PredecessorTable class, stores the previous city of every Held-Karp state in 5 bits,
+ * which is enough for 32 cities. States are in the same order as a DenseTable layer
+ * (state p of the subset with rank r is at index r * k + p of layer k), and each layer
+ * is packed into 64-bit words, with 12 states to a word and the top 4 bits unused, so a
+ * state never spans two words.
+ *
+ * Neighbouring states share a word, and neighbouring subsets may be computed by different
+ * threads, so a state is written by a compare-and-set of its word, which only ever has
+ * to be retried when two threads write the same word at the same moment.
+ */
+public class PredecessorTable {
+
+	static final int BITS = 5; /* bits per previous city */
+	static final int PER_WORD = Long.SIZE / BITS; /* states in each word */
+	static final long MASK = (1L << BITS) - 1;
+
+	SubsetSpace subsetSpace;
+	AtomicLongArray[] layers; /* layers[k] holds the previous cities of layer k */
+
+	/**
+	 * PredecessorTable constructor. No layer is allocated until it is first used
+	 *
+	 * @param subsetSpace Subsets the states are made from
+	 */
+	public PredecessorTable(SubsetSpace subsetSpace) {
+		this.subsetSpace = subsetSpace;
+		this.layers = new AtomicLongArray[subsetSpace.elements + 1];
+	}
+
+	/**
+	 * Gets the number of words needed to hold the given number of states
+	 *
+	 * @param states Number of states
+	 * @return long Number of words
+	 */
+	static long words(long states) {
+		return (states + PER_WORD - 1) / PER_WORD;
+	}
+
+	/**
+	 * Gets the number of bytes every layer together takes up
+	 *
+	 * @return long Size of the table in bytes, once every layer is allocated
+	 */
+	public long memoryRequired() {
+		long words = 0;
+
+		for (int size = 1; size <= subsetSpace.elements; size++)
+			words += words(subsetSpace.count(size) * size);
+
+		return words * Long.BYTES;
+	}
+
+	/**
+	 * Allocates the words for a layer
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 */
+	public void allocateLayer(int subsetSize) {
+		layers[subsetSize] = new AtomicLongArray((int) words(subsetSpace.count(subsetSize) * subsetSize));
+	}
+
+	/**
+	 * Checks whether a layer has been allocated
+	 *
+	 * @param subsetSize Size of the subsets in the layer
+	 * @return boolean True if the layer has been allocated
+	 */
+	public boolean hasLayer(int subsetSize) {
+		return layers[subsetSize] != null;
+	}
+
+	/**
+	 * Gets the previous city of a state
+	 *
+	 * @param subsetSize Size of the state's subset
+	 * @param index Index of the state within its layer
+	 * @return int Previous city of the state
+	 */
+	public int get(int subsetSize, long index) {
+		long word = layers[subsetSize].get((int) (index / PER_WORD));
+		return (int) ((word >>> (index % PER_WORD * BITS)) & MASK);
+	}
+
+	/**
+	 * Sets the previous city of a state
+	 *
+	 * @param subsetSize Size of the state's subset
+	 * @param index Index of the state within its layer
+	 * @param previousCity Previous city of the state, from 0 to 31
+	 */
+	public void set(int subsetSize, long index, int previousCity) {
+		AtomicLongArray layer = layers[subsetSize];
+		int wordIndex = (int) (index / PER_WORD);
+		int shift = (int) (index % PER_WORD * BITS);
+		long word;
+
+		do {
+			word = layer.get(wordIndex);
+		} while (!layer.compareAndSet(wordIndex, word, (word & ~(MASK << shift)) | ((long) previousCity << shift)));
+	}
+}
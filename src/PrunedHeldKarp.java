@@ -0,0 +1,201 @@
+import java.util.concurrent.CancellationException;
+
+/**
+ * PrunedHeldKarp.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * PrunedHeldKarp class, an exact version of Held-Karp that only keeps the states that
+ * could still be part of a tour no longer than a known tour (the upper bound). Each
+ * state (S, j) is a path from 0 through S ending at j, and it still has to visit every
+ * remaining city R and return to 0. That rest of the path costs at least:
+ *  - a minimum spanning tree over R and city 0 (the rest of the path after its first
+ *    edge is a spanning tree of those cities), plus
+ *  - the shortest edge from j into R.
+ * A state whose cost plus this lower bound is above the upper bound can never be part
+ * of a better tour, so it is dropped. As the surviving states are scattered across the
+ * subsets, each layer is kept in its own hash table, and each layer's states are pushed
+ * forwards into the next layer instead of every state of the next layer being computed.
+ *
+ * The optimal tour always survives, so the result is still exact. How many states are
+ * dropped depends on how close the bounds are; clustered inputs prune the most.
+ */
+public class PrunedHeldKarp extends HeldKarp {
+
+	static final double TOLERANCE = 1e-9; /* relative slack, so rounding never drops the optimal tour */
+
+	double upperBound;
+	LayeredStateTable layeredTable;
+	StateTable spanningTrees; /* minimum spanning tree cost of each remaining set, for one layer */
+
+	/**
+	 * PrunedHeldKarp constructor, finds the upper bound with a quick heuristic
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 */
+	public PrunedHeldKarp(double[][] distanceMatrix) {
+		this(distanceMatrix, Heuristics.upperBound(distanceMatrix).cost);
+	}
+
+	/**
+	 * PrunedHeldKarp constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param upperBound Cost of a known tour, or any value no lower than the optimal cost
+	 */
+	public PrunedHeldKarp(double[][] distanceMatrix, double upperBound) {
+		super(distanceMatrix, new LayeredStateTable(distanceMatrix.length));
+		this.layeredTable = (LayeredStateTable) costTable;
+		this.upperBound = upperBound;
+	}
+
+	/**
+	 * Gets the number of states that were kept
+	 *
+	 * @return long Number of states in every layer
+	 */
+	public long statesKept() {
+		return layeredTable.count();
+	}
+
+	/**
+	 * Runs Held-Karp layer by layer, pushing every state that survives the bound
+	 * into the next layer, then closes the best tour found in the last layer
+	 *
+	 * @return Tour The shortest path and its cost, which are also printed
+	 */
+	@Override
+	public Tour solveTSP() {
+
+		int firstCity = 0;
+		int numberOfCities = distanceMatrix.length;
+		double limit = upperBound + Math.abs(upperBound) * TOLERANCE;
+		long allCities = subsetSpace.all();
+
+		/* the first layer holds the paths from the first city straight to each city */
+		spanningTrees = new StateTable(numberOfCities);
+		for (int city = 1; city < numberOfCities; city++) {
+			double cost = distanceMatrix[firstCity][city];
+
+			if (cost + lowerBound(1L << city, city) <= limit)
+				layeredTable.put(1L << city, city, cost, firstCity);
+		}
+
+		/* each state of a layer is extended by every city it has not visited yet */
+		for (int subsetSize = 1; subsetSize < numberOfCities - 1; subsetSize++) {
+			if (cancelled)
+				throw new CancellationException("Held-Karp was cancelled");
+
+			StateTable nextLayer = layeredTable.layer(subsetSize + 1);
+			spanningTrees = new StateTable(LayeredStateTable.INITIAL_LAYER_SIZE);
+
+			layeredTable.layer(subsetSize).forEach((subset, city, cost) -> {
+
+				for (long remaining = allCities & ~subset; remaining != 0; remaining &= remaining - 1) {
+					int toCity = Long.numberOfTrailingZeros(remaining);
+					long toSubset = subset | (1L << toCity);
+					double toCost = cost + distanceMatrix[city][toCity];
+
+					/* the bound is only worked out for states that would improve */
+					if (toCost < nextLayer.cost(toSubset, toCity)
+							&& toCost + lowerBound(toSubset, toCity) <= limit)
+						nextLayer.putIfLower(toSubset, toCity, toCost, city);
+				}
+			});
+		}
+		spanningTrees = null;
+
+		/* close every path in the last layer by returning to the first city */
+		double bestCost = Double.POSITIVE_INFINITY;
+		int bestCity = -1;
+
+		for (long remaining = allCities; remaining != 0; remaining &= remaining - 1) {
+			int city = Long.numberOfTrailingZeros(remaining);
+			double cost = costTable.cost(allCities, city) + distanceMatrix[city][firstCity];
+
+			if (cost < bestCost) {
+				bestCost = cost;
+				bestCity = city;
+			}
+		}
+
+		if (bestCity < 0)
+			throw new IllegalStateException("No tour costs less than the upper bound of " + upperBound);
+
+		costTable.put(allCities, firstCity, bestCost, bestCity);
+
+		Tour tour = new Tour(findBestPath(allCities), bestCost);
+		System.out.println(tour);
+		return tour;
+	}
+
+	/**
+	 * Gets a lower bound on the cost of completing a path, i.e. leaving its end city,
+	 * visiting every remaining city and returning to the first city
+	 *
+	 * @param subset Bitmask of the cities the path has visited
+	 * @param city The city the path ends at
+	 * @return double Lower bound on the rest of the tour
+	 */
+	double lowerBound(long subset, int city) {
+		long remainingCities = subsetSpace.all() & ~subset;
+
+		if (remainingCities == 0)
+			return distanceMatrix[city][0];
+
+		double shortestEdge = Double.POSITIVE_INFINITY;
+		for (long remaining = remainingCities; remaining != 0; remaining &= remaining - 1)
+			shortestEdge = Math.min(shortestEdge, distanceMatrix[city][Long.numberOfTrailingZeros(remaining)]);
+
+		/* every state of the layer with the same remaining cities shares the tree */
+		double spanningTree = spanningTrees.cost(remainingCities, 0);
+		if (spanningTree == Double.POSITIVE_INFINITY) {
+			spanningTree = spanningTreeCost(remainingCities);
+			spanningTrees.put(remainingCities, 0, spanningTree, 0);
+		}
+
+		return shortestEdge + spanningTree;
+	}
+
+	/**
+	 * Finds the cost of a minimum spanning tree over a set of cities and the first
+	 * city using Prim's algorithm. Each edge costs the shorter of its two directions,
+	 * so the tree is also a lower bound on asymmetric inputs
+	 *
+	 * @param cities Bitmask of the cities, not including the first city
+	 * @return double Cost of the tree
+	 */
+	double spanningTreeCost(long cities) {
+		double[] distances = new double[distanceMatrix.length];
+		double cost = 0;
+		long outside = cities;
+
+		/* grow the tree from the first city */
+		for (long remaining = outside; remaining != 0; remaining &= remaining - 1) {
+			int city = Long.numberOfTrailingZeros(remaining);
+			distances[city] = Math.min(distanceMatrix[0][city], distanceMatrix[city][0]);
+		}
+
+		while (outside != 0) {
+			int nearestCity = -1;
+
+			for (long remaining = outside; remaining != 0; remaining &= remaining - 1) {
+				int city = Long.numberOfTrailingZeros(remaining);
+				if (nearestCity < 0 || distances[city] < distances[nearestCity])
+					nearestCity = city;
+			}
+
+			cost += distances[nearestCity];
+			outside &= ~(1L << nearestCity);
+
+			for (long remaining = outside; remaining != 0; remaining &= remaining - 1) {
+				int city = Long.numberOfTrailingZeros(remaining);
+				distances[city] = Math.min(distances[city],
+						Math.min(distanceMatrix[nearestCity][city], distanceMatrix[city][nearestCity]));
+			}
+		}
+		return cost;
+	}
+}
@@ -0,0 +1,230 @@
+import java.util.Arrays;
+
+/**
+ * RestrictedHeldKarp.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * RestrictedHeldKarp class, Balas and Simonetti's restricted version of Held-Karp. Given
+ * a reference tour, it finds the shortest tour in which no city is visited more than k
+ * positions out of its reference order: for any two cities i and j with j at least k
+ * places after i in the reference tour, i must still come before j. There are
+ * exponentially many such tours, but the DP only grows linearly with n.
+ *
+ * While the tour is built one city at a time, let a be the first city of the reference
+ * order that has not been visited yet. Every city before a has been visited, and no city k
+ * or more places after a can have been (it would have had to come after a). So the
+ * visited cities are the cities before a plus a bitmask of the k - 1 cities after it, and
+ * the last city visited is at most k places either side of a. A state is (a, bitmask,
+ * last city), giving n * 2^(k - 1) * 2k states of at most k moves each, O(n * k^2 * 2^k)
+ * time in all. Positions are indices into the reference tour, which starts at city 0.
+ *
+ * Costs only move forward by at most k values of a, so only k + 1 of them are kept, but
+ * the previous city of every state is kept (one byte each) to backtrack the tour. Each
+ * run only improves on the reference tour, so it is repeated from the new tour until
+ * the tour stops changing.
+ */
+public class RestrictedHeldKarp {
+
+	static final int MAX_DEVIATION = 14; /* keeps the previous cities of 1000 cities under 250 MB */
+	static final double TOLERANCE = 1e-9; /* relative improvement a run must make to be repeated */
+
+	double[][] distanceMatrix;
+	int maxDeviation; /* k */
+	int masks; /* 2^(k - 1) bitmasks of the cities after a */
+	int lastCities; /* 2k positions the last city can be at, from a - k to a + k - 1 */
+	int runs;
+
+	/**
+	 * RestrictedHeldKarp constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param maxDeviation How many positions a city may move from the reference tour, k
+	 */
+	public RestrictedHeldKarp(double[][] distanceMatrix, int maxDeviation) {
+		this.distanceMatrix = distanceMatrix;
+		this.maxDeviation = maxDeviation;
+
+		if (maxDeviation < 1 || maxDeviation > MAX_DEVIATION)
+			throw new IllegalArgumentException("The deviation must be between 1 and " + MAX_DEVIATION);
+
+		this.masks = 1 << (maxDeviation - 1);
+		this.lastCities = 2 * maxDeviation;
+	}
+
+	/**
+	 * Gets the number of times the DP was run by the last call to improve()
+	 *
+	 * @return int Number of runs
+	 */
+	public int runs() {
+		return runs;
+	}
+
+	/**
+	 * Finds a heuristic tour and improves it
+	 *
+	 * @return Tour The improved tour, which is also printed
+	 */
+	public Tour solveTSP() {
+		Tour tour = improve(Heuristics.upperBound(distanceMatrix));
+
+		System.out.println(tour);
+		System.out.println("Ran the restricted DP " + runs + " times.");
+		return tour;
+	}
+
+	/**
+	 * Improves a tour by running the DP from it, then from the tour it finds, until
+	 * that tour is no shorter
+	 *
+	 * @param tour Reference tour, starting and ending at 0, which is not changed
+	 * @return Tour The improved tour
+	 */
+	public Tour improve(Tour tour) {
+		runs = 0;
+
+		while (true) {
+			Tour improved = solve(tour.path);
+			runs++;
+
+			if (improved.cost >= tour.cost - Math.abs(tour.cost) * TOLERANCE)
+				return tour;
+			tour = improved;
+		}
+	}
+
+	/**
+	 * Finds the shortest tour that keeps every city within k positions of the reference order
+	 *
+	 * @param reference Reference tour, starting and ending at 0
+	 * @return Tour The shortest such tour, which is never longer than the reference
+	 */
+	public Tour solve(int[] reference) {
+		int numberOfCities = distanceMatrix.length;
+		int k = maxDeviation;
+		int layerSize = masks * lastCities;
+
+		/* with fewer than 3 cities there is only one tour */
+		if (numberOfCities < 3)
+			return new Tour(reference.clone(), Tour.cost(reference, distanceMatrix));
+
+		/* costs of the states for the k + 1 values of a after the current one, in a ring */
+		double[][] costs = new double[k + 1][layerSize];
+		for (double[] layer : costs)
+			Arrays.fill(layer, Double.POSITIVE_INFINITY);
+
+		/* previousCities[a][mask * 2k + last] = position of the city before the last one, relative to its own a */
+		byte[][] previousCities = new byte[numberOfCities + 1][layerSize];
+
+		/* only the first city has been visited, so a = 1 and the last city is at position 0 */
+		costs[1 % (k + 1)][lastIndex(0, 1)] = 0;
+
+		for (int first = 1; first < numberOfCities; first++) {
+			double[] layer = costs[first % (k + 1)];
+
+			/* the slot of a - 1 is reused for a + k */
+			Arrays.fill(costs[(first + k) % (k + 1)], Double.POSITIVE_INFINITY);
+
+			/* adding a city to the bitmask always makes it larger, so each
+			   bitmask is complete before it is reached */
+			for (int mask = 0; mask < masks; mask++) {
+				for (int last = 0; last < lastCities; last++) {
+					double cost = layer[mask * lastCities + last];
+
+					if (cost == Double.POSITIVE_INFINITY)
+						continue;
+
+					int lastPos = first - k + last;
+					int lastCity = reference[lastPos];
+
+					/* the next city is either a, or a city after a that has not been visited */
+					for (int next = 0; next < k && first + next < numberOfCities; next++) {
+						if (next > 0 && (mask & (1 << (next - 1))) != 0)
+							continue;
+
+						int nextPos = first + next;
+						double nextCost = cost + distanceMatrix[lastCity][reference[nextPos]];
+						int nextFirst = first, nextMask = mask | (next > 0 ? 1 << (next - 1) : 0);
+
+						/* visiting a moves a past every city after it that has been visited */
+						if (next == 0) {
+							int skipped = Integer.numberOfTrailingZeros(~mask);
+							nextFirst = first + 1 + skipped;
+							nextMask = mask >>> (skipped + 1);
+						}
+
+						int index = nextMask * lastCities + lastIndex(nextPos, nextFirst);
+						double[] nextLayer = costs[nextFirst % (k + 1)];
+
+						if (nextCost < nextLayer[index]) {
+							nextLayer[index] = nextCost;
+							previousCities[nextFirst][index] = (byte) last;
+						}
+					}
+				}
+			}
+		}
+
+		/* every city has been visited, so a = n and the bitmask is empty. The tour
+		   is closed by returning to city 0 from the last city */
+		double[] finalLayer = costs[numberOfCities % (k + 1)];
+		double bestCost = Double.POSITIVE_INFINITY;
+		int bestLast = 0;
+
+		for (int last = 0; last < lastCities; last++) {
+			int lastPos = numberOfCities - k + last;
+
+			if (lastPos < 0 || lastPos >= numberOfCities || finalLayer[last] == Double.POSITIVE_INFINITY)
+				continue;
+
+			double cost = finalLayer[last] + distanceMatrix[reference[lastPos]][reference[0]];
+
+			if (cost < bestCost) {
+				bestCost = cost;
+				bestLast = last;
+			}
+		}
+
+		return new Tour(backtrack(reference, previousCities, bestLast), bestCost);
+	}
+
+	/**
+	 * Follows the previous cities back from the final state. The state before each
+	 * one is worked out from the cities visited: the last city is taken out, and if
+	 * it was before a, it becomes the new a
+	 *
+	 * @return int[] The tour, starting and ending at 0
+	 */
+	int[] backtrack(int[] reference, byte[][] previousCities, int last) {
+		int numberOfCities = distanceMatrix.length;
+		int k = maxDeviation;
+		int[] path = new int[numberOfCities + 1];
+		int first = numberOfCities, mask = 0;
+
+		for (int pos = numberOfCities - 1; pos > 0; pos--) {
+			int lastPos = first - k + last;
+			int previousLast = previousCities[first][mask * lastCities + last];
+			path[pos] = reference[lastPos];
+
+			if (lastPos < first) {
+				/* every city from the last one up to a had been visited */
+				mask = ((1 << (first - lastPos - 1)) - 1) | (mask << (first - lastPos));
+				first = lastPos;
+			} else {
+				mask &= ~(1 << (lastPos - first - 1));
+			}
+			last = previousLast;
+		}
+		return path;
+	}
+
+	/**
+	 * Gets the index of the last city's position among the 2k positions around a
+	 */
+	int lastIndex(int lastPos, int first) {
+		return lastPos - first + maxDeviation;
+	}
+}
@@ -0,0 +1,278 @@
+import java.util.Arrays;
+
+/**
+ * StateTable.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * StateTable class, stores the cost and previous city of every Held-Karp state.
+ * A state is a set of cities together with the city the path ends at, and is
+ * packed into a single long key (the city set as a bitmask, with the end city
+ * in the lowest 5 bits). Keys, costs and previous cities are kept in parallel
+ * primitive arrays and found using open addressing, so no objects are created
+ * when storing or looking up a state.
+ */
+public class StateTable implements CostTable {
+
+	static final int CITY_BITS = 5; /* number of bits used for the end city in a key */
+	static final int MAX_CITIES = 1 << CITY_BITS; /* cities 0 to 31 can be stored */
+	static final long EMPTY = -1; /* keys are never negative, so -1 marks an empty slot */
+	static final int MAX_SIZE = 1 << 30; /* largest power of two an array can be */
+
+	int size; /* always a power of two, so positions can be found with a mask */
+	int total; /* total number of states currently in the table,
+				  used to check if a resize is required */
+	long[] keys;
+	double[] costs;
+	byte[] previousCities;
+
+	/**
+	 * StateTable constructor, sizes the table so that the expected number
+	 * of states fits without a resize
+	 *
+	 * @param expectedStates Number of states that are expected to be stored
+	 */
+	public StateTable(int expectedStates) {
+		this.size = tableSize(expectedStates);
+		this.total = 0;
+		this.keys = new long[size];
+		this.costs = new double[size];
+		this.previousCities = new byte[size];
+
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/**
+	 * Finds the smallest power of two that keeps the table at most
+	 * three quarters full when it holds the given number of states
+	 *
+	 * @param states Number of states to hold
+	 * @return int Table size
+	 */
+	static int tableSize(int states) {
+		long minimumSize = (long) states * 4 / 3 + 1;
+		int size = 16;
+
+		while (size < minimumSize && size < MAX_SIZE)
+			size <<= 1;
+
+		return size;
+	}
+
+	/**
+	 * Packs a city set and an end city into a single key
+	 *
+	 * @param subset Bitmask of the cities in the set (bit i is city i)
+	 * @param city The city the path ends at
+	 * @return long Key of the state
+	 */
+	public static long key(long subset, int city) {
+		return subset << CITY_BITS | city;
+	}
+
+	/**
+	 * Creates a hash code for the given key. The key is multiplied by a large odd
+	 * constant (based on the golden ratio), which spreads neighbouring subsets across
+	 * the whole table, and the top bits of the product are used as the position.
+	 *
+	 * @param key Key to be hashed
+	 * @return int Hash code of the key, always within the table
+	 */
+	public int hash(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(size)));
+	}
+
+	/**
+	 * Finds the position of a key in the table using linear probing
+	 *
+	 * @param key Key to search for
+	 * @return int The position of the key in the table. Returns
+	 * the size of the table (out of bounds) if the key is not found
+	 */
+	public int position(long key) {
+		int mask = size - 1;
+
+		/* probe until the key or an empty slot is found. the table is never
+		   full, so there is always an empty slot to stop at */
+		for (int pos = hash(key);; pos = (pos + 1) & mask) {
+
+			if (keys[pos] == key)
+				return pos;
+
+			if (keys[pos] == EMPTY)
+				return size;
+		}
+	}
+
+	/**
+	 * Gets the cost of a state
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @return double Cost of the state, or infinity if it is not in the table
+	 */
+	@Override
+	public double cost(long subset, int city) {
+		int pos = position(key(subset, city));
+		return pos == size ? Double.POSITIVE_INFINITY : costs[pos];
+	}
+
+	/**
+	 * Gets the previous city of a state, used for backtracking
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @return int Previous city of the state, or -1 if it is not in the table
+	 */
+	@Override
+	public int previousCity(long subset, int city) {
+		int pos = position(key(subset, city));
+		return pos == size ? -1 : previousCities[pos];
+	}
+
+	/**
+	 * Puts a state into the table, or updates its cost and previous city
+	 * if it is already in the table
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @param cost Cost of the state
+	 * @param previousCity Previous city of the state
+	 */
+	@Override
+	public void put(long subset, int city, double cost, int previousCity) {
+		long key = key(subset, city);
+		int mask = size - 1;
+		int pos = hash(key);
+
+		while (keys[pos] != EMPTY && keys[pos] != key)
+			pos = (pos + 1) & mask;
+
+		if (keys[pos] == EMPTY) {
+			/* at the largest size the table cannot grow, so it stops taking new states */
+			if (size == MAX_SIZE && total >= size / 4 * 3)
+				throw new IllegalStateException("The table is full, it holds at most " + size / 4 * 3 + " states");
+
+			keys[pos] = key;
+			total++;
+		}
+
+		costs[pos] = cost;
+		previousCities[pos] = (byte) previousCity;
+
+		/* keep the table at most three quarters full, so probe sequences stay short */
+		if (total > size / 4 * 3 && size < MAX_SIZE)
+			resize(size * 2);
+	}
+
+	/**
+	 * Puts a state into the table unless it is already there with a cost that is
+	 * no higher, which is how a state is relaxed when states are pushed forwards
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @param cost Cost of the state
+	 * @param previousCity Previous city of the state
+	 * @return boolean True if the state was stored
+	 */
+	public boolean putIfLower(long subset, int city, double cost, int previousCity) {
+		int pos = position(key(subset, city));
+
+		if (pos != size && costs[pos] <= cost)
+			return false;
+
+		if (pos == size) {
+			put(subset, city, cost, previousCity);
+		} else {
+			costs[pos] = cost;
+			previousCities[pos] = (byte) previousCity;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the number of states in the table
+	 *
+	 * @return int Number of states
+	 */
+	public int count() {
+		return total;
+	}
+
+	/**
+	 * StateVisitor, receives the states of a table one at a time
+	 */
+	interface StateVisitor {
+		void visit(long subset, int city, double cost);
+	}
+
+	/**
+	 * Passes every state in the table to the visitor, in no particular order.
+	 * The visitor must not put states into this table
+	 *
+	 * @param visitor Visitor to pass the states to
+	 */
+	public void forEach(StateVisitor visitor) {
+		long cityMask = (1L << CITY_BITS) - 1;
+
+		for (int pos = 0; pos < size; pos++) {
+			if (keys[pos] != EMPTY)
+				visitor.visit(keys[pos] >>> CITY_BITS, (int) (keys[pos] & cityMask), costs[pos]);
+		}
+	}
+
+	/**
+	 * Resizes the table, re-inserting every state into the larger arrays. This is a
+	 * costly operation, but can be avoided by giving the constructor the number of
+	 * states that will be stored
+	 *
+	 * @param newSize New size of the table, must be a power of two
+	 */
+	public void resize(int newSize) {
+		long[] oldKeys = keys;
+		double[] oldCosts = costs;
+		byte[] oldPreviousCities = previousCities;
+
+		this.size = newSize;
+		this.keys = new long[newSize];
+		this.costs = new double[newSize];
+		this.previousCities = new byte[newSize];
+		Arrays.fill(keys, EMPTY);
+
+		int mask = newSize - 1;
+
+		for (int oldPos = 0; oldPos < oldKeys.length; oldPos++) {
+			if (oldKeys[oldPos] == EMPTY)
+				continue;
+
+			int pos = hash(oldKeys[oldPos]);
+			while (keys[pos] != EMPTY)
+				pos = (pos + 1) & mask;
+
+			keys[pos] = oldKeys[oldPos];
+			costs[pos] = oldCosts[oldPos];
+			previousCities[pos] = oldPreviousCities[oldPos];
+		}
+	}
+
+	/**
+	 * toString override
+	 *
+	 * @return String Contains all states in the table
+	 */
+	@Override
+	public String toString() {
+		StringBuilder output = new StringBuilder();
+
+		for (int pos = 0; pos < size; pos++) {
+			if (keys[pos] != EMPTY)
+				output.append(pos + " = " + Long.toBinaryString(keys[pos] >>> CITY_BITS) + " -> "
+						+ (keys[pos] & (MAX_CITIES - 1)) + ", cost= " + costs[pos] + ", prev city= "
+						+ previousCities[pos] + "\n");
+		}
+
+		return output.toString();
+	}
+}
@@ -0,0 +1,276 @@
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * SubsetSpace.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * SubsetSpace class, describes every subset of a run of bits (e.g. bits 1 to n - 1
+ * for the cities other than the first city) without ever storing them. Subsets are
+ * plain bitmasks. The subsets of one size are ordered in colex order, which is the
+ * same as the numeric order of their bitmasks, so:
+ *  - the next subset is found with Gosper's hack,
+ *  - a subset's position in that order (its rank) comes from the combinatorial
+ *    number system, and unrank() goes back from a rank to the subset,
+ *  - a range of ranks can be split in half at any point, which is what the
+ *    Spliterator does so that fork/join tasks and parallel streams can share a layer.
+ */
+public class SubsetSpace {
+
+	int elements; /* number of bits that can be in a subset */
+	int firstBit; /* lowest bit that can be in a subset */
+	long[][] binomials; /* binomials[a][b] = C(a, b) */
+
+	/**
+	 * SubsetSpace constructor
+	 *
+	 * @param elements Number of bits that can be in a subset
+	 * @param firstBit Lowest bit that can be in a subset
+	 */
+	public SubsetSpace(int elements, int firstBit) {
+		this.elements = elements;
+		this.firstBit = firstBit;
+		this.binomials = binomials(elements);
+	}
+
+	/**
+	 * Builds Pascal's triangle up to the given number of elements
+	 *
+	 * @param elements Largest value of a in C(a, b)
+	 * @return long[][] Table where [a][b] is C(a, b)
+	 */
+	static long[][] binomials(int elements) {
+		long[][] binomials = new long[elements + 1][elements + 1];
+
+		for (int a = 0; a <= elements; a++) {
+			binomials[a][0] = 1;
+			for (int b = 1; b <= a; b++)
+				binomials[a][b] = binomials[a - 1][b - 1] + binomials[a - 1][b];
+		}
+		return binomials;
+	}
+
+	/**
+	 * Gets the number of subsets of the given size
+	 *
+	 * @param size Size of the subsets
+	 * @return long C(elements, size)
+	 */
+	public long count(int size) {
+		return size < 0 || size > elements ? 0 : binomials[elements][size];
+	}
+
+	/**
+	 * Gets the bitmask of every element
+	 *
+	 * @return long Subset containing every element
+	 */
+	public long all() {
+		return ((1L << elements) - 1) << firstBit;
+	}
+
+	/**
+	 * Gets the first subset of a size in colex order, i.e. the lowest bits
+	 *
+	 * @param size Size of the subset
+	 * @return long First subset of that size
+	 */
+	public long first(int size) {
+		return ((1L << size) - 1) << firstBit;
+	}
+
+	/**
+	 * Gets the next subset of the same size in colex order using Gosper's hack,
+	 * which gives the next larger number with the same number of set bits. The
+	 * result is past the last element when called on the last subset
+	 *
+	 * @param subset Current subset
+	 * @return long Next subset
+	 */
+	public long next(long subset) {
+		long bits = subset >>> firstBit;
+
+		if (bits == 0)
+			return 0; /* the empty set is the only subset of size 0 */
+
+		long lowestBit = bits & -bits;
+		long ripple = bits + lowestBit;
+
+		return ((((ripple ^ bits) >>> 2) / lowestBit) | ripple) << firstBit;
+	}
+
+	/**
+	 * Gets the colex rank of a subset, which is the sum of C(e, i) for the
+	 * i-th smallest element e of the subset (counting i from 1)
+	 *
+	 * @param subset Bitmask of the subset
+	 * @return long Rank of the subset amongst all subsets of the same size
+	 */
+	public long rank(long subset) {
+		long rank = 0;
+		int i = 1;
+
+		for (long remaining = subset >>> firstBit; remaining != 0; remaining &= remaining - 1)
+			rank += binomials[Long.numberOfTrailingZeros(remaining)][i++];
+
+		return rank;
+	}
+
+	/**
+	 * Gets the position of an element within a subset, i.e. the number of
+	 * elements in the subset that are smaller than it
+	 *
+	 * @param subset Bitmask of the subset
+	 * @param element Element in the subset
+	 * @return int Position of the element
+	 */
+	public static int position(long subset, int element) {
+		return Long.bitCount(subset & ((1L << element) - 1));
+	}
+
+	/**
+	 * Gets the index of a state in a layer that keeps the states of each subset
+	 * together, in rank order: the state ending at the p-th smallest element of
+	 * the subset of size k and rank r is at index r * k + p. DenseTable, OffHeapTable
+	 * and TableFile all lay out their layers this way
+	 *
+	 * @param subset Bitmask of the subset
+	 * @param element The element the state ends at, must be in the subset
+	 * @return long Index of the state within its layer
+	 */
+	public long index(long subset, int element) {
+		return rank(subset) * Long.bitCount(subset) + position(subset, element);
+	}
+
+	/**
+	 * Gets the subset with the given colex rank, the reverse of rank(). Starting
+	 * from the largest element, each element is the largest e with C(e, i) no
+	 * greater than the rank that is left
+	 *
+	 * @param rank Rank of the subset
+	 * @param size Number of elements in the subset
+	 * @return long Bitmask of the subset
+	 */
+	public long unrank(long rank, int size) {
+		long subset = 0;
+		int element = elements - 1;
+
+		for (int i = size; i > 0; i--) {
+			while (binomials[element][i] > rank)
+				element--;
+
+			rank -= binomials[element][i];
+			subset |= 1L << (element + firstBit);
+			element--;
+		}
+		return subset;
+	}
+
+	/**
+	 * Gets a Spliterator over every subset of a size, in colex order
+	 *
+	 * @param size Size of the subsets
+	 * @return Spliterator.OfLong Spliterator over the subsets' bitmasks
+	 */
+	public Spliterator.OfLong spliterator(int size) {
+		return new SubsetSpliterator(size, 0, count(size));
+	}
+
+	/**
+	 * Gets a stream of every subset of a size, for use with parallel streams
+	 *
+	 * @param size Size of the subsets
+	 * @param parallel True for a parallel stream
+	 * @return LongStream Stream of the subsets' bitmasks
+	 */
+	public LongStream stream(int size, boolean parallel) {
+		return StreamSupport.longStream(spliterator(size), parallel);
+	}
+
+	/**
+	 * SubsetSpliterator, walks the subsets with ranks in [from, to). Only the first
+	 * subset is unranked (when it is first needed), the rest follow from next().
+	 * Splitting hands the lower half of the ranks to a new spliterator
+	 */
+	class SubsetSpliterator implements Spliterator.OfLong {
+
+		int size;
+		long from, to;
+		long subset; /* subset with rank from, found when it is first needed */
+		boolean started;
+
+		SubsetSpliterator(int size, long from, long to) {
+			this.size = size;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean tryAdvance(LongConsumer action) {
+			if (from >= to)
+				return false;
+
+			if (!started) {
+				subset = unrank(from, size);
+				started = true;
+			}
+
+			action.accept(subset);
+			subset = next(subset);
+			from++;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(LongConsumer action) {
+			if (from >= to)
+				return;
+
+			long current = started ? subset : unrank(from, size);
+
+			for (long rank = from; rank < to; rank++) {
+				action.accept(current);
+				current = next(current);
+			}
+			from = to;
+		}
+
+		@Override
+		public Spliterator.OfLong trySplit() {
+			if (to - from < 2)
+				return null;
+
+			long middle = (from + to) >>> 1;
+			SubsetSpliterator lowerHalf = new SubsetSpliterator(size, from, middle);
+
+			/* the lower half keeps the subset that has already been found */
+			lowerHalf.subset = subset;
+			lowerHalf.started = started;
+
+			from = middle;
+			started = false;
+			return lowerHalf;
+		}
+
+		@Override
+		public long estimateSize() {
+			return to - from;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
+
+		@Override
+		public Comparator<? super Long> getComparator() {
+			return null; /* sorted in the natural order of the bitmasks */
+		}
+	}
+}
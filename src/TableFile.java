@@ -0,0 +1,353 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * TableFile.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * TableFile class, saves a filled Held-Karp table to a file and opens it again as a
+ * FilledTable, so that a solved instance can be queried (see TableQueries and
+ * KBestTours) after a restart without running the DP again. The file is:
+ *  - a header: magic number, version, number of cities, flags and a fingerprint of the
+ *    distance matrix, so a table is never opened against a different instance,
+ *  - a directory with the offset, stored size and raw size of the two sections of
+ *    every layer,
+ *  - the sections of each layer k, in the order of a DenseTable: the cost (a double) and
+ *    previous city (a byte) of the state ending at the p-th smallest city of the subset
+ *    of rank r are at index r * k + p (see SubsetSpace.index()).
+ * Every number is little-endian, and every section starts 8-byte aligned.
+ *
+ * Opening a file maps its sections into memory with FileChannel.map, so nothing is
+ * read until a state is looked up, and the operating system keeps the pages in its
+ * cache between runs. Sections can instead be compressed with Deflater when the file
+ * is written, which makes it smaller but means every layer is inflated into memory
+ * when it is opened.
+ */
+public class TableFile extends FilledTable {
+
+	static final int MAGIC = 0x42544B48; /* "HKTB" */
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 32;
+	static final int DIRECTORY_ENTRY_BYTES = 48; /* offset, stored and raw size of both sections */
+	static final int FLAG_COMPRESSED = 1;
+	static final int BUFFER_BYTES = 1 << 16;
+
+	int cities; /* number of cities that can be in a subset, n - 1 */
+	OffHeapArray[] costs; /* costs[k] holds every state of layer k */
+	OffHeapArray[] previousCities; /* previousCities[k] holds one byte per state of layer k */
+
+	/**
+	 * TableFile constructor, only used by open()
+	 */
+	TableFile(double[][] distanceMatrix, OffHeapArray[] costs, OffHeapArray[] previousCities) {
+		super(distanceMatrix);
+		this.cities = distanceMatrix.length - 1;
+		this.costs = costs;
+		this.previousCities = previousCities;
+	}
+
+	/**
+	 * Writes every state of a solver's table to a file. The file is written next to
+	 * the target and then moved over it, so a reader never sees half a table
+	 *
+	 * @param heldKarp Solver whose table holds every state (see TableQueries)
+	 * @param file File to write, which is replaced if it exists
+	 * @param compress If true, each section is compressed with Deflater
+	 */
+	public static void save(HeldKarp heldKarp, Path file, boolean compress) {
+		FilledTable table = FilledTable.of(heldKarp);
+		double[][] distanceMatrix = heldKarp.distanceMatrix;
+		int numberOfCities = distanceMatrix.length;
+
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + DIRECTORY_ENTRY_BYTES * Math.max(numberOfCities - 1, 0))
+					.order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(numberOfCities).putInt(compress ? FLAG_COMPRESSED : 0)
+					.putLong(fingerprint(distanceMatrix)).putLong(0);
+
+			/* the directory is only known once the sections are written, so it is filled in last */
+			channel.position(header.capacity());
+
+			for (int size = 1; size < numberOfCities; size++) {
+				for (int section = 0; section < 2; section++) {
+					long start = align(channel.position());
+					channel.position(start);
+
+					long rawBytes = writeSection(table, size, section == 0, channel, compress);
+					header.putLong(start).putLong(channel.position() - start).putLong(rawBytes);
+				}
+			}
+
+			header.flip();
+			channel.position(0);
+			while (header.hasRemaining())
+				channel.write(header);
+			channel.force(true);
+
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write " + temporary, e);
+		}
+
+		try {
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not replace " + file, e);
+		}
+	}
+
+	/**
+	 * Writes the costs or previous cities of one layer at the channel's position, subsets in rank order
+	 *
+	 * @return long Size of the section before compression, in bytes
+	 */
+	static long writeSection(FilledTable table, int subsetSize, boolean writeCosts, FileChannel channel,
+			boolean compress) throws IOException {
+
+		SubsetSpace subsetSpace = table.subsetSpace;
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+		/* the channel stream is not closed, as that would close the channel */
+		OutputStream out = Channels.newOutputStream(channel);
+		Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+		DeflaterOutputStream deflaterOut = compress ? new DeflaterOutputStream(out, deflater, BUFFER_BYTES) : null;
+		long rawBytes = 0;
+
+		try {
+			long subset = subsetSpace.first(subsetSize);
+
+			for (long rank = subsetSpace.count(subsetSize); rank > 0; rank--, subset = subsetSpace.next(subset)) {
+				for (long remaining = subset; remaining != 0; remaining &= remaining - 1) {
+					int city = Long.numberOfTrailingZeros(remaining);
+
+					if (buffer.remaining() < Double.BYTES)
+						rawBytes += flush(buffer, compress ? deflaterOut : out);
+
+					if (writeCosts)
+						buffer.putDouble(table.cost(subset, city));
+					else
+						buffer.put((byte) table.previousCity(subset, city));
+				}
+			}
+			rawBytes += flush(buffer, compress ? deflaterOut : out);
+
+			if (compress)
+				deflaterOut.finish();
+		} finally {
+			if (deflater != null)
+				deflater.end();
+		}
+		return rawBytes;
+	}
+
+	/**
+	 * Writes out and empties a buffer
+	 *
+	 * @return int Number of bytes written
+	 */
+	static int flush(ByteBuffer buffer, OutputStream out) throws IOException {
+		int bytes = buffer.position();
+		out.write(buffer.array(), 0, bytes);
+		buffer.clear();
+		return bytes;
+	}
+
+	/**
+	 * Opens a table file written by save(). The file can be deleted or replaced
+	 * while it is open, as the mapping keeps its own reference to the data
+	 *
+	 * @param file File to open
+	 * @param distanceMatrix Distances the table was solved for, checked against the fingerprint
+	 * @return TableFile Every state of the table, ready for TableQueries or KBestTours
+	 */
+	public static TableFile open(Path file, double[][] distanceMatrix) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, header, 0);
+
+			if (header.getInt() != MAGIC)
+				throw new IllegalArgumentException(file + " is not a Held-Karp table file");
+
+			int version = header.getInt();
+			if (version != VERSION)
+				throw new IllegalArgumentException(file + " is version " + version + ", only version "
+						+ VERSION + " can be read");
+
+			int numberOfCities = header.getInt();
+			int flags = header.getInt();
+			long fingerprint = header.getLong();
+
+			if (numberOfCities != distanceMatrix.length || fingerprint != fingerprint(distanceMatrix))
+				throw new IllegalArgumentException(file + " was written for a different distance matrix");
+
+			ByteBuffer directory = ByteBuffer.allocate(DIRECTORY_ENTRY_BYTES * Math.max(numberOfCities - 1, 0))
+					.order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, directory, HEADER_BYTES);
+
+			OffHeapArray[] costs = new OffHeapArray[numberOfCities];
+			OffHeapArray[] previousCities = new OffHeapArray[numberOfCities];
+			boolean compressed = (flags & FLAG_COMPRESSED) != 0;
+
+			for (int size = 1; size < numberOfCities; size++) {
+				costs[size] = readSection(channel, directory, compressed, file);
+				previousCities[size] = readSection(channel, directory, compressed, file);
+			}
+
+			return new TableFile(distanceMatrix, costs, previousCities);
+
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read " + file, e);
+		}
+	}
+
+	/**
+	 * Maps (or inflates) the section described by the next directory entry
+	 */
+	static OffHeapArray readSection(FileChannel channel, ByteBuffer directory, boolean compressed, Path file)
+			throws IOException {
+
+		long start = directory.getLong();
+		long storedBytes = directory.getLong();
+		long rawBytes = directory.getLong();
+
+		if (start < 0 || storedBytes < 0 || start + storedBytes > channel.size())
+			throw new IllegalArgumentException(file + " is truncated");
+
+		ByteBuffer[] chunks = new ByteBuffer[(int) ((rawBytes + OffHeapArray.CHUNK_MASK) >>> OffHeapArray.CHUNK_SHIFT)];
+
+		if (!compressed) {
+			/* a mapping stays valid after its channel has been closed */
+			for (int chunk = 0; chunk < chunks.length; chunk++) {
+				long offset = (long) chunk << OffHeapArray.CHUNK_SHIFT;
+				long chunkBytes = Math.min(OffHeapArray.CHUNK_MASK + 1, rawBytes - offset);
+
+				chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, start + offset, chunkBytes)
+						.order(ByteOrder.LITTLE_ENDIAN);
+			}
+			return new OffHeapArray(rawBytes, chunks);
+		}
+
+		OffHeapArray array = new OffHeapArray(rawBytes);
+		for (ByteBuffer chunk : array.chunks)
+			chunk.order(ByteOrder.LITTLE_ENDIAN);
+
+		/* the stream is not closed, as that would close the channel, so the inflater is ended here */
+		Inflater inflater = new Inflater();
+		InputStream in = new InflaterInputStream(Channels.newInputStream(channel.position(start)), inflater);
+		byte[] buffer = new byte[BUFFER_BYTES];
+
+		try {
+			for (ByteBuffer chunk : array.chunks) {
+				ByteBuffer target = chunk.duplicate();
+
+				while (target.hasRemaining()) {
+					int read = in.read(buffer, 0, Math.min(buffer.length, target.remaining()));
+					if (read < 0)
+						throw new IllegalArgumentException(file + " is truncated");
+					target.put(buffer, 0, read);
+				}
+			}
+		} finally {
+			inflater.end();
+		}
+		return array;
+	}
+
+	/**
+	 * Reads from a position of a channel until the buffer is full, then flips it
+	 */
+	static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0)
+				throw new IOException("Unexpected end of file");
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Rounds a file position up to the next multiple of 8
+	 */
+	static long align(long position) {
+		return (position + 7) & ~7L;
+	}
+
+	/**
+	 * Hashes every distance of a matrix (64-bit FNV-1a over the bits of each double)
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @return long Fingerprint of the matrix
+	 */
+	static long fingerprint(double[][] distanceMatrix) {
+		long hash = 0xcbf29ce484222325L;
+
+		for (double[] row : distanceMatrix) {
+			for (double distance : row) {
+				long bits = Double.doubleToLongBits(distance);
+				for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+					hash ^= (bits >>> shift) & 0xff;
+					hash *= 0x100000001b3L;
+				}
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Checks that a state is one the file holds (city 0 is never in a subset)
+	 */
+	boolean holds(long subset, int city) {
+		return city > 0 && city <= cities && (subset & (1L << city)) != 0 && (subset & 1L) == 0
+				&& (subset >>> (cities + 1)) == 0;
+	}
+
+	/**
+	 * Gets the cost of a state
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @return double Cost of the state, or infinity if the file does not hold it
+	 */
+	@Override
+	public double cost(long subset, int city) {
+		if (!holds(subset, city))
+			return Double.POSITIVE_INFINITY;
+
+		return costs[Long.bitCount(subset)].getDouble(subsetSpace.index(subset, city));
+	}
+
+	/**
+	 * Gets the previous city of a state
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param city The city the state ends at
+	 * @return int Previous city of the state, or -1 if the file does not hold it
+	 */
+	@Override
+	public int previousCity(long subset, int city) {
+		if (!holds(subset, city))
+			return -1;
+
+		return previousCities[Long.bitCount(subset)].getByte(subsetSpace.index(subset, city));
+	}
+}
@@ -0,0 +1,196 @@
+/**
+ * TableQueries.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * TableQueries class, answers questions about parts of a problem from a Held-Karp table
+ * that has already been filled in. Every state is the optimal path from city 0 through
+ * a subset to its end city, so:
+ *  - the optimal path from 0 through S to j is the state (S, j) itself,
+ *  - the optimal tour of 0 and S is the cheapest state of S closed back to 0, O(n),
+ *  - the optimal tour without city x is the same for S = every other city.
+ * Each answer is backtracked through the previous cities in O(n). Queries only read
+ * the table, so any number of threads can ask them at once.
+ *
+ * The table must hold every state of every layer: a table with rolling layers, a
+ * meet-in-the-middle solve (which stops at the middle layer), eliminated edges or a
+ * hull order (which leave out states that can still be optimal for a smaller set of
+ * cities) would all give wrong answers, so they are turned down.
+ */
+public class TableQueries {
+
+	FilledTable table;
+	double[][] distanceMatrix;
+	long allCities; /* bitmask of the cities 1 to n - 1 */
+
+	/**
+	 * TableQueries constructor, fills in a new table with every state
+	 *
+	 * @param distanceMatrix Distances between every pair of cities, at most 32 cities
+	 */
+	public TableQueries(double[][] distanceMatrix) {
+		this(solveEveryLayer(distanceMatrix));
+	}
+
+	/**
+	 * TableQueries constructor, on a Held-Karp solver whose solveTSP() has finished
+	 *
+	 * @param heldKarp Solver whose table holds every state
+	 */
+	public TableQueries(HeldKarp heldKarp) {
+		this(FilledTable.of(heldKarp));
+	}
+
+	/**
+	 * TableQueries constructor, on a table that has already been filled in, e.g. a TableFile
+	 *
+	 * @param table Every state of the table
+	 */
+	public TableQueries(FilledTable table) {
+		this.table = table;
+		this.distanceMatrix = table.distanceMatrix;
+		this.allCities = table.subsetSpace.all();
+	}
+
+	/**
+	 * Computes every layer of a new Held-Karp table
+	 */
+	static HeldKarp solveEveryLayer(double[][] distanceMatrix) {
+		HeldKarp heldKarp = new HeldKarp(distanceMatrix, new DenseTable(distanceMatrix.length, false));
+		heldKarp.solveLayers(distanceMatrix.length - 1);
+		return heldKarp;
+	}
+
+	/**
+	 * Checks whether a solver keeps every state, along with the previous cities to backtrack them
+	 *
+	 * @param heldKarp Solver to check
+	 * @return boolean True if every subset can be queried
+	 */
+	static boolean holdsEveryState(HeldKarp heldKarp) {
+		CostTable costTable = heldKarp.costTable;
+
+		if (costTable instanceof DenseTable
+				&& (((DenseTable) costTable).rolling || !((DenseTable) costTable).keepPreviousCities))
+			return false;
+		if (costTable instanceof OffHeapTable && ((OffHeapTable) costTable).rolling)
+			return false;
+
+		boolean halfSolved = heldKarp.meetInTheMiddle && heldKarp.distanceMatrix.length >= 4
+				&& HeldKarp.isSymmetric(heldKarp.distanceMatrix);
+
+		return !halfSolved && !(heldKarp instanceof PrunedHeldKarp)
+				&& heldKarp.neighbourMasks == null && heldKarp.convexHullOrder == null;
+	}
+
+	/**
+	 * Finds the optimal path that starts at city 0, visits every given city once and ends at city j
+	 *
+	 * @param end City j, the last city of the path
+	 * @param cities Cities to visit, which may or may not include j
+	 * @return HamiltonianPath The path from 0 to j, which does not return to 0, and its cost
+	 */
+	public HamiltonianPath path(int end, int... cities) {
+		long subset = subsetOf(cities);
+
+		checkCity(end);
+		subset |= 1L << end;
+
+		return new HamiltonianPath(pathTo(subset, end, 1), table.cost(subset, end));
+	}
+
+	/**
+	 * Finds the optimal tour of city 0 and the given cities
+	 *
+	 * @param cities Cities to visit besides city 0
+	 * @return Tour The tour, starting and ending at 0
+	 */
+	public Tour tour(int... cities) {
+		return tourOf(subsetOf(cities));
+	}
+
+	/**
+	 * Finds the optimal tour of every city except one
+	 *
+	 * @param city City to leave out, which cannot be city 0
+	 * @return Tour The tour, starting and ending at 0
+	 */
+	public Tour tourWithout(int city) {
+		checkCity(city);
+		return tourOf(allCities & ~(1L << city));
+	}
+
+	/**
+	 * Closes the cheapest state of a subset back to city 0
+	 *
+	 * @param subset Bitmask of the cities to visit
+	 * @return Tour The tour, starting and ending at 0
+	 */
+	Tour tourOf(long subset) {
+		if (subset == 0)
+			return new Tour(new int[] { 0, 0 }, 0);
+
+		double bestCost = Double.POSITIVE_INFINITY;
+		int bestCity = 0;
+
+		for (long remaining = subset; remaining != 0; remaining &= remaining - 1) {
+			int city = Long.numberOfTrailingZeros(remaining);
+			double cost = table.cost(subset, city) + distanceMatrix[city][0];
+
+			if (cost < bestCost) {
+				bestCost = cost;
+				bestCity = city;
+			}
+		}
+
+		return new Tour(pathTo(subset, bestCity, 2), bestCost);
+	}
+
+	/**
+	 * Backtracks a state into a path from city 0
+	 *
+	 * @param subset Bitmask of the cities in the state
+	 * @param end The city the state ends at
+	 * @param extra 1 to end the path at the end city, 2 to go back to city 0 after it
+	 * @return int[] The path, starting at 0
+	 */
+	int[] pathTo(long subset, int end, int extra) {
+		int[] cities = table.backtrack(subset, end);
+		int[] path = new int[cities.length + extra];
+
+		/* backtracking finds the cities last to first */
+		for (int pos = 0; pos < cities.length; pos++)
+			path[pos + 1] = cities[cities.length - 1 - pos];
+
+		return path;
+	}
+
+	/**
+	 * Converts a list of cities to a bitmask
+	 *
+	 * @param cities Cities 1 to n - 1, each at most once
+	 * @return long Bitmask of the cities
+	 */
+	long subsetOf(int[] cities) {
+		long subset = 0;
+
+		for (int city : cities) {
+			checkCity(city);
+
+			if ((subset & (1L << city)) != 0)
+				throw new IllegalArgumentException("City " + city + " is given more than once");
+			subset |= 1L << city;
+		}
+		return subset;
+	}
+
+	/**
+	 * Checks that a city can be part of a query (city 0 is always the start)
+	 */
+	void checkCity(int city) {
+		if (city < 1 || city >= distanceMatrix.length)
+			throw new IllegalArgumentException("City " + city + " must be between 1 and " + (distanceMatrix.length - 1));
+	}
+}
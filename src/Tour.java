@@ -0,0 +1,56 @@
+/**
+ * Tour.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Tour holds a complete path through every city, starting and ending at
+ * the first city (0), along with its cost. Every solver returns its result
+ * as a Tour, so results can be compared and printed the same way.
+ */
+public class Tour {
+
+	int[] path; /* cities in the order they are visited, starting and ending with 0 */
+	double cost;
+
+	/**
+	 * Tour constructor
+	 *
+	 * @param path Cities in the order they are visited, starting and ending with 0
+	 * @param cost Cost of the path
+	 */
+	public Tour(int[] path, double cost) {
+		this.path = path;
+		this.cost = cost;
+	}
+
+	/**
+	 * Adds up the cost of a path
+	 *
+	 * @param path Cities in the order they are visited
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @return double Sum of the distances between each city and the next
+	 */
+	public static double cost(int[] path, double[][] distanceMatrix) {
+		double cost = 0;
+
+		for (int pos = 0; pos < path.length - 1; pos++)
+			cost += distanceMatrix[path[pos]][path[pos + 1]];
+
+		return cost;
+	}
+
+	/**
+	 * toString override, prints the path and its cost
+	 */
+	@Override
+	public String toString() {
+		StringBuilder output = new StringBuilder("Path = ");
+
+		for (int pos = 0; pos < path.length; pos++)
+			output.append(pos == 0 ? "" : " -> ").append(path[pos]);
+
+		return output.append("\nCost = ").append(cost).toString();
+	}
+}
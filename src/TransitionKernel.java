@@ -0,0 +1,234 @@
+/**
+ * TransitionKernel.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * TransitionKernel class, computes every state of a subset directly on the arrays
+ * of a DenseTable. For a subset S of size k, the state ending at each city j is the
+ * minimum over the k - 1 states of S without j, and those states sit next to each
+ * other in layer k - 1 (at rank(S without j) * (k - 1) onwards). The rank of S without
+ * each of its cities is found from prefix and suffix sums of the rank terms, so the
+ * whole subset takes O(k) ranking work and O(k^2) comparisons.
+ *
+ * The layers are either the java arrays of a DenseTable or the long-indexed
+ * OffHeapArrays of an OffHeapTable; both use the same order, so only the reads
+ * and writes differ.
+ *
+ * All of the working arrays are created once, in the constructor, so solving a subset
+ * does not allocate anything. A kernel must only be used by one thread at a time;
+ * parallel solvers give each worker thread its own kernel.
+ */
+public class TransitionKernel {
+
+	double[][] distanceMatrix;
+	SubsetSpace subsetSpace;
+	DenseTable denseTable; /* set if the states are in a DenseTable... */
+	OffHeapTable offHeapTable; /* ...or if they are in an OffHeapTable */
+	long[] neighbourMasks; /* cities each city may be joined to, or null for every city */
+
+	/* scratch buffers, reused for every subset */
+	int[] cities; /* cities of the current subset, smallest first */
+	int[] positions; /* positions[c] = position of city c in the current subset */
+	long[] prefixRanks; /* prefixRanks[p] = rank terms of the cities before position p */
+	long[] suffixRanks; /* suffixRanks[p] = rank terms of the cities after position p,
+						   shifted down by one as they would be without position p */
+
+	/**
+	 * TransitionKernel constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param denseTable Table holding the states
+	 */
+	public TransitionKernel(double[][] distanceMatrix, DenseTable denseTable) {
+		this(distanceMatrix, denseTable.subsetSpace);
+		this.denseTable = denseTable;
+	}
+
+	/**
+	 * TransitionKernel constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param offHeapTable Table holding the states
+	 */
+	public TransitionKernel(double[][] distanceMatrix, OffHeapTable offHeapTable) {
+		this(distanceMatrix, offHeapTable.subsetSpace);
+		this.offHeapTable = offHeapTable;
+	}
+
+	TransitionKernel(double[][] distanceMatrix, SubsetSpace subsetSpace) {
+		this.distanceMatrix = distanceMatrix;
+		this.subsetSpace = subsetSpace;
+
+		this.cities = new int[distanceMatrix.length];
+		this.positions = new int[distanceMatrix.length];
+		this.prefixRanks = new long[distanceMatrix.length + 1];
+		this.suffixRanks = new long[distanceMatrix.length];
+	}
+
+	/**
+	 * Computes the minimum cost and previous city of every state of a subset, and
+	 * stores them in the table. The layer below must be complete, and the subset's
+	 * own layer must already be allocated
+	 *
+	 * @param subset Bitmask of the cities in the subset, of size 2 or more
+	 */
+	public void solveSubset(long subset) {
+		solveSubset(subset, subset);
+	}
+
+	/**
+	 * Computes the states of a subset that end at the given cities. The states that end
+	 * at its other cities are ruled out, and are stored with an infinite cost
+	 *
+	 * @param subset Bitmask of the cities in the subset, of size 2 or more
+	 * @param ends Bitmask of the cities in the subset whose states are computed
+	 */
+	public void solveSubset(long subset, long ends) {
+		long[][] binomials = subsetSpace.binomials;
+		int size = 0;
+
+		for (long remaining = subset; remaining != 0; remaining &= remaining - 1) {
+			positions[Long.numberOfTrailingZeros(remaining)] = size;
+			cities[size++] = Long.numberOfTrailingZeros(remaining);
+		}
+
+		/* the rank of a subset is the sum of C(city - 1, position + 1). Removing the city at
+		   position p leaves the terms before it as they are, and moves every city after it
+		   down one position */
+		prefixRanks[0] = 0;
+		for (int pos = 0; pos < size; pos++)
+			prefixRanks[pos + 1] = prefixRanks[pos] + binomials[cities[pos] - 1][pos + 1];
+
+		suffixRanks[size - 1] = 0;
+		for (int pos = size - 1; pos > 0; pos--)
+			suffixRanks[pos - 1] = suffixRanks[pos] + binomials[cities[pos] - 1][pos];
+
+		if (denseTable != null)
+			solveStates(subset, ends, size, denseTable.costs[size], denseTable.previousCities,
+					denseTable.costs[size - 1]);
+		else
+			solveStates(ends, size, offHeapTable.costs[size], offHeapTable.previousCities[size],
+					offHeapTable.costs[size - 1]);
+	}
+
+	/**
+	 * Computes every state of the subset held in the scratch buffers, reading and writing
+	 * DenseTable layers
+	 *
+	 * @param subset Bitmask of the cities in the subset
+	 * @param ends Bitmask of the cities whose states are computed
+	 * @param size Size of the subset
+	 * @param costs Costs of the subset's layer
+	 * @param previousCities Previous cities of every layer, or null if they are not kept
+	 * @param previousLayer Costs of the layer below
+	 */
+	void solveStates(long subset, long ends, int size, double[] costs, PredecessorTable previousCities, double[] previousLayer) {
+		int index = (int) (prefixRanks[size] * size);
+
+		for (int pos = 0; pos < size; pos++, index++) {
+
+			int city = cities[pos];
+			int start = (int) ((prefixRanks[pos] + suffixRanks[pos]) * (size - 1));
+			double cost = Double.POSITIVE_INFINITY, combinationCost;
+			int previousCity = 0;
+
+			if ((ends & (1L << city)) == 0) {
+				costs[index] = Double.POSITIVE_INFINITY;
+				continue;
+			}
+
+			/* with restricted edges, only the cities joined to this one are tried. they are
+			   visited in the same order as the loops below, so ties are broken the same way */
+			if (neighbourMasks != null) {
+				for (long remaining = subset & neighbourMasks[city]; remaining != 0; remaining &= remaining - 1) {
+					int fromCity = Long.numberOfTrailingZeros(remaining);
+					int fromPos = positions[fromCity];
+
+					combinationCost = previousLayer[start + (fromPos < pos ? fromPos : fromPos - 1)]
+							+ distanceMatrix[fromCity][city];
+
+					if (combinationCost < cost) {
+						cost = combinationCost;
+						previousCity = fromCity;
+					}
+				}
+
+				costs[index] = cost;
+				if (previousCities != null)
+					previousCities.set(size, index, previousCity);
+				continue;
+			}
+
+			/* the cities before this one keep their position in the smaller subset... */
+			for (int fromPos = 0; fromPos < pos; fromPos++) {
+				combinationCost = previousLayer[start + fromPos] + distanceMatrix[cities[fromPos]][city];
+
+				if (combinationCost < cost) {
+					cost = combinationCost;
+					previousCity = cities[fromPos];
+				}
+			}
+
+			/* ...and the cities after it move down by one */
+			for (int fromPos = pos + 1; fromPos < size; fromPos++) {
+				combinationCost = previousLayer[start + fromPos - 1] + distanceMatrix[cities[fromPos]][city];
+
+				if (combinationCost < cost) {
+					cost = combinationCost;
+					previousCity = cities[fromPos];
+				}
+			}
+
+			costs[index] = cost;
+			if (previousCities != null)
+				previousCities.set(size, index, previousCity);
+		}
+	}
+
+	/**
+	 * Computes every state of the subset held in the scratch buffers, reading and writing
+	 * OffHeapTable layers, where every index is a long
+	 *
+	 * @param ends Bitmask of the cities whose states are computed
+	 * @param size Size of the subset
+	 * @param costs Costs of the subset's layer
+	 * @param previousCities Previous cities of the subset's layer
+	 * @param previousLayer Costs of the layer below
+	 */
+	void solveStates(long ends, int size, OffHeapArray costs, OffHeapArray previousCities, OffHeapArray previousLayer) {
+		long index = prefixRanks[size] * size;
+
+		for (int pos = 0; pos < size; pos++, index++) {
+
+			int city = cities[pos];
+			long start = (prefixRanks[pos] + suffixRanks[pos]) * (size - 1);
+			double cost = Double.POSITIVE_INFINITY, combinationCost;
+			int previousCity = 0;
+			long joinedCities = neighbourMasks == null ? -1L : neighbourMasks[city];
+
+			if ((ends & (1L << city)) == 0) {
+				costs.putDouble(index, Double.POSITIVE_INFINITY);
+				continue;
+			}
+
+			for (int fromPos = 0; fromPos < size; fromPos++) {
+				if (fromPos == pos || (joinedCities & (1L << cities[fromPos])) == 0)
+					continue;
+
+				/* cities after this one move down by one in the smaller subset */
+				combinationCost = previousLayer.getDouble(start + (fromPos < pos ? fromPos : fromPos - 1))
+						+ distanceMatrix[cities[fromPos]][city];
+
+				if (combinationCost < cost) {
+					cost = combinationCost;
+					previousCity = cities[fromPos];
+				}
+			}
+
+			costs.putDouble(index, cost);
+			previousCities.putByte(index, (byte) previousCity);
+		}
+	}
+}
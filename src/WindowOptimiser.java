@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * WindowOptimiser.java
+ *
+ * @author Samuel C. Donovan
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * WindowOptimiser class, improves a tour of any size with Held-Karp. A window is k
+ * cities in a row of the tour, along with the city before it and the city after it.
+ * Those two cities stay where they are, and Held-Karp finds the shortest path from the
+ * first, through the k cities in any order, to the second. If it is shorter than the
+ * tour's path, it is spliced in. This is repeated for windows starting at every position
+ * of the tour until none of them improves.
+ *
+ * Each window is a Held-Karp run on k + 1 cities (the city before the window is local
+ * city 0), so it takes O(k^2 * 2^k) time whatever the size of the tour. Windows that
+ * start k + 1 positions apart only share the fixed cities at their ends, so a whole row
+ * of them is solved at once on a ForkJoinPool, and then the next row is started one
+ * position further along.
+ */
+public class WindowOptimiser {
+
+	static final double TOLERANCE = 1e-9; /* relative improvement a window must make, so rounding never loops */
+
+	double[][] distanceMatrix;
+	int windowSize;
+	int threads;
+	int windowsImproved;
+
+	/**
+	 * WindowOptimiser constructor
+	 *
+	 * @param distanceMatrix Distances between every pair of cities
+	 * @param windowSize Number of cities in a window, around 12 to 16 is practical
+	 * @param threads Number of windows to solve at once
+	 */
+	public WindowOptimiser(double[][] distanceMatrix, int windowSize, int threads) {
+		this.distanceMatrix = distanceMatrix;
+		this.windowSize = windowSize;
+		this.threads = threads;
+
+		/* a window and the city before it must fit in a Held-Karp run on a DenseTable */
+		if (windowSize < 1 || windowSize >= StateTable.MAX_CITIES || !DenseTable.fitsInArrays(windowSize + 1))
+			throw new IllegalArgumentException("The window size must be between 1 and " + maxWindowSize());
+	}
+
+	/**
+	 * Gets the largest window whose Held-Karp run fits in a DenseTable
+	 *
+	 * @return int Largest window size
+	 */
+	static int maxWindowSize() {
+		int windowSize = StateTable.MAX_CITIES - 1;
+
+		while (windowSize > 1 && !DenseTable.fitsInArrays(windowSize + 1))
+			windowSize--;
+		return windowSize;
+	}
+
+	/**
+	 * Gets the number of windows that have been spliced into the tour
+	 *
+	 * @return int Number of improvements
+	 */
+	public int windowsImproved() {
+		return windowsImproved;
+	}
+
+	/**
+	 * Finds a heuristic tour and improves it
+	 *
+	 * @return Tour The improved tour, which is also printed
+	 */
+	public Tour solveTSP() {
+		Tour tour = improve(Heuristics.upperBound(distanceMatrix));
+
+		System.out.println(tour);
+		System.out.println("Improved " + windowsImproved + " windows.");
+		return tour;
+	}
+
+	/**
+	 * Improves a tour until no window of it can be made shorter
+	 *
+	 * @param tour Tour to improve, which is not changed
+	 * @return Tour The improved tour, starting and ending at 0
+	 */
+	public Tour improve(Tour tour) {
+		int numberOfCities = distanceMatrix.length;
+
+		if (numberOfCities < 3)
+			return tour;
+
+		/* the tour is a loop, so positions wrap around. A window of n - 1 cities starts and ends at the same city */
+		int[] order = new int[numberOfCities];
+		System.arraycopy(tour.path, 0, order, 0, numberOfCities);
+
+		int size = Math.min(windowSize, numberOfCities - 1);
+		int windowsPerRow = numberOfCities / (size + 1);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+
+		try {
+			/* stop once every starting offset has been tried without an improvement */
+			for (int offset = 0, sinceImproved = 0; sinceImproved <= size; offset = (offset + 1) % (size + 1)) {
+				List<Callable<int[]>> windows = new ArrayList<>();
+
+				for (int window = 0; window < windowsPerRow; window++) {
+					int start = offset + window * (size + 1);
+					windows.add(() -> solveWindow(order, start, size));
+				}
+
+				int[][] paths = new int[windowsPerRow][];
+				List<Future<int[]>> results = pool.invokeAll(windows);
+				for (int window = 0; window < windowsPerRow; window++)
+					paths[window] = results.get(window).get();
+
+				sinceImproved++;
+
+				/* splice each shorter path into the window it came from */
+				for (int window = 0; window < windowsPerRow; window++) {
+					if (paths[window] == null)
+						continue;
+
+					int start = offset + window * (size + 1);
+					for (int pos = 0; pos < size; pos++)
+						order[(start + 1 + pos) % numberOfCities] = paths[window][pos];
+
+					windowsImproved++;
+					sinceImproved = 0;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while improving the tour", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A window could not be solved", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+
+		/* turn the loop back into a path from 0 */
+		int first = 0;
+		while (order[first] != 0)
+			first++;
+
+		int[] path = new int[numberOfCities + 1];
+		for (int pos = 0; pos < numberOfCities; pos++)
+			path[pos] = order[(first + pos) % numberOfCities];
+
+		return new Tour(path, Tour.cost(path, distanceMatrix));
+	}
+
+	/**
+	 * Finds the shortest path through one window, keeping the cities at either end fixed
+	 *
+	 * @param order The tour, as a loop of every city
+	 * @param start Position of the city before the window
+	 * @param size Number of cities in the window
+	 * @return int[] The cities of the window in their new order, or null if the current order is the shortest
+	 */
+	int[] solveWindow(int[] order, int start, int size) {
+		int numberOfCities = order.length;
+		int startCity = order[start % numberOfCities];
+		int endCity = order[(start + size + 1) % numberOfCities];
+		int[] cities = new int[size];
+
+		double currentCost = 0;
+		int previousCity = startCity;
+
+		for (int pos = 0; pos < size; pos++) {
+			cities[pos] = order[(start + 1 + pos) % numberOfCities];
+			currentCost += distanceMatrix[previousCity][cities[pos]];
+			previousCity = cities[pos];
+		}
+		currentCost += distanceMatrix[previousCity][endCity];
+
+		/* the city before the window is local city 0, and every path through the window
+		   is a state of the last layer, which is closed by going to the city after it */
+		HeldKarp heldKarp = new HeldKarp(HirschbergHeldKarp.localMatrix(distanceMatrix, startCity, cities, false),
+				new DenseTable(size + 1, true));
+		heldKarp.solveLayers(size);
+
+		long allCities = heldKarp.subsetSpace.all();
+		double bestCost = Double.POSITIVE_INFINITY;
+		int bestCity = 0;
+
+		for (int city = 1; city <= size; city++) {
+			double cost = heldKarp.costTable.cost(allCities, city) + distanceMatrix[cities[city - 1]][endCity];
+
+			if (cost < bestCost) {
+				bestCost = cost;
+				bestCity = city;
+			}
+		}
+
+		if (bestCost >= currentCost - Math.abs(currentCost) * TOLERANCE)
+			return null;
+
+		/* backtracking gives the local cities from the last one back to the first */
+		int[] localPath = heldKarp.backtrack(allCities, bestCity);
+		int[] path = new int[size];
+
+		for (int pos = 0; pos < size; pos++)
+			path[pos] = cities[localPath[size - 1 - pos] - 1];
+
+		return path;
+	}
+}